@@ -1,6 +1,7 @@
 package org.rsbot;
 
 import org.rsbot.bot.Bot;
+import org.rsbot.bot.RSClassLoader;
 import org.rsbot.gui.BotGUI;
 import org.rsbot.log.LogOutputStream;
 import org.rsbot.log.SystemConsoleHandler;
@@ -14,11 +15,17 @@ import java.util.logging.Logger;
 public class Application {
 
 	private static BotGUI gui;
+	private static HeadlessLauncher headless;
 	private static long startTime;
 
 	public static void main(final String[] args) throws Exception {
 		bootstrap();
 		new Extractor(args).run();
+		if (HeadlessLauncher.isHeadless(args)) {
+			headless = new HeadlessLauncher(args);
+			headless.launch();
+			return;
+		}
 		gui = new BotGUI();
 		gui.setVisible(true);
 		gui.addBot();
@@ -33,7 +40,11 @@ public class Application {
 	 * @return The Bot for the client.
 	 */
 	public static Bot getBot(Object o) {
-		return gui.getBot(o);
+		ClassLoader cl = o.getClass().getClassLoader();
+		if (cl instanceof RSClassLoader) {
+			return ((RSClassLoader) cl).getBot();
+		}
+		return null;
 	}
 
 	/**
@@ -43,6 +54,9 @@ public class Application {
 	 * @return The client panel size.
 	 */
 	public static Dimension getPanelSize() {
+		if (headless != null) {
+			return headless.getPanelSize();
+		}
 		return gui.getPanel().getSize();
 	}
 
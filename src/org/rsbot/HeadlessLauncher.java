@@ -0,0 +1,150 @@
+package org.rsbot;
+
+import org.rsbot.bot.Bot;
+import org.rsbot.bot.FrameScheduler;
+import org.rsbot.gui.BotGUI;
+import org.rsbot.service.FileScriptSource;
+import org.rsbot.service.ScriptDefinition;
+import org.rsbot.service.ScriptSource;
+import org.rsbot.service.ServiceException;
+import org.rsbot.util.GlobalConfiguration;
+
+import java.awt.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * Runs bots without the GUI. Usage:
+ * <p/>
+ * <tt>-headless [-size WIDTHxHEIGHT] [-fps N] -bot [account][:script] ...</tt>
+ * <p/>
+ * Each <tt>-bot</tt> argument starts one bot, logged in with the given
+ * account and running the named script once the client has loaded. Scripts
+ * are looked up by name in the bundled, precompiled and source script
+ * directories.
+ * <p/>
+ * The client is still an applet, so an AWT display (such as a virtual
+ * frame buffer) is required, but no Swing component is ever created.
+ */
+public class HeadlessLauncher {
+
+	public static final String ARG_HEADLESS = "-headless";
+
+	private static final int DEFAULT_FPS = 10;
+	private static final int LOAD_TIMEOUT = 300000;
+
+	private final Logger log = Logger.getLogger(HeadlessLauncher.class.getName());
+
+	private final List<Bot> bots = new CopyOnWriteArrayList<Bot>();
+	private final List<String> targets = new ArrayList<String>();
+	private Dimension panelSize = new Dimension(BotGUI.PANEL_WIDTH, BotGUI.PANEL_HEIGHT);
+	private int fps = DEFAULT_FPS;
+
+	public static boolean isHeadless(String[] args) {
+		for (String arg : args) {
+			if (arg.equals(ARG_HEADLESS)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public HeadlessLauncher(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			final String arg = args[i];
+			if (i + 1 < args.length) {
+				if (arg.equals("-bot")) {
+					targets.add(args[++i]);
+				} else if (arg.equals("-size")) {
+					final String[] size = args[++i].toLowerCase().split("x");
+					panelSize = new Dimension(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+				} else if (arg.equals("-fps")) {
+					fps = Integer.parseInt(args[++i]);
+				}
+			}
+		}
+		if (targets.isEmpty()) {
+			throw new IllegalArgumentException("No bots specified; use -bot [account][:script]");
+		}
+	}
+
+	/**
+	 * Starts every bot specified on the command line.
+	 */
+	public void launch() {
+		for (final String target : targets) {
+			final int sep = target.indexOf(':');
+			final String account = sep == -1 ? target : target.substring(0, sep);
+			final String script = sep == -1 ? null : target.substring(sep + 1);
+			final Bot bot = new Bot();
+			bot.setFrameScheduler(new FrameScheduler.Headless(fps));
+			bots.add(bot);
+			new Thread(new Runnable() {
+				public void run() {
+					bot.start();
+					if (account.length() != 0 && !bot.setAccount(account)) {
+						log.warning("Unknown account: " + account);
+					}
+					if (script != null && script.length() != 0) {
+						runScript(bot, script);
+					}
+				}
+			}, "Headless-" + target).start();
+		}
+	}
+
+	public Dimension getPanelSize() {
+		return panelSize;
+	}
+
+	public List<Bot> getBots() {
+		return bots;
+	}
+
+	private void runScript(Bot bot, String name) {
+		final ScriptDefinition def = findScript(name);
+		if (def == null) {
+			log.severe("Unknown script: " + name);
+			return;
+		}
+		final long start = System.currentTimeMillis();
+		while (bot.getMethodContext() == null) {
+			if (System.currentTimeMillis() - start > LOAD_TIMEOUT) {
+				log.severe("Client did not load; not starting " + name);
+				return;
+			}
+			try {
+				Thread.sleep(1000);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+		try {
+			bot.getScriptHandler().runScript(def.source.load(def));
+		} catch (ServiceException e) {
+			log.severe("Unable to load script " + name + ": " + e.getMessage());
+		}
+	}
+
+	private ScriptDefinition findScript(String name) {
+		final ScriptSource[] sources = {
+				new FileScriptSource(new File(GlobalConfiguration.RUNNING_FROM_JAR
+						? GlobalConfiguration.Paths.getScriptsExtractedCache()
+						: "." + File.separator + GlobalConfiguration.Paths.SCRIPTS_NAME_SRC)),
+				new FileScriptSource(new File(GlobalConfiguration.Paths.getScriptsPrecompiledDirectory())),
+				new FileScriptSource(new File(GlobalConfiguration.Paths.getScriptsSourcesDirectory()))
+		};
+		for (ScriptSource source : sources) {
+			for (ScriptDefinition def : source.list()) {
+				if (def.name != null && def.name.equalsIgnoreCase(name)) {
+					return def;
+				}
+			}
+		}
+		return null;
+	}
+
+}
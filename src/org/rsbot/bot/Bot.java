@@ -30,13 +30,14 @@ public class Bot {
 	private final PaintEvent paintEvent;
 	private final TextPaintEvent textPaintEvent;
 	private final EventManager eventManager;
-	private BufferedImage backBuffer;
-	private BufferedImage image;
+	private final FrameBuffers buffers;
+	private volatile boolean presentRequested;
 	private final InputManager im;
 	private RSLoader loader;
 	private final ScriptHandler sh;
 	private final BreakHandler bh;
 	private final Map<String, EventListener> listeners;
+	private volatile FrameScheduler frameScheduler;
 
 	/**
 	 * Whether or not user input is allowed despite a script's preference.
@@ -67,7 +68,7 @@ public class Bot {
 
 	public Bot() {
 		im = new InputManager(this);
-		loader = new RSLoader();
+		loader = new RSLoader(this);
 		final Dimension size = Application.getPanelSize();
 		loader.setCallback(new Runnable() {
 			public void run() {
@@ -81,19 +82,21 @@ public class Bot {
 		});
 		sh = new ScriptHandler(this);
 		bh = new BreakHandler(this);
-		backBuffer = new BufferedImage(size.width, size.height,
-				BufferedImage.TYPE_INT_RGB);
-		image = new BufferedImage(size.width, size.height,
-				BufferedImage.TYPE_INT_RGB);
+		buffers = new FrameBuffers(size.width, size.height);
 		paintEvent = new PaintEvent();
 		textPaintEvent = new TextPaintEvent();
 		eventManager = new EventManager();
 		listeners = new TreeMap<String, EventListener>();
+		frameScheduler = new FrameScheduler.Adaptive(
+				1000 / Canvas.GRAPHICS_DELAY, 1000 / Canvas.SLOW_GRAPHICS_DELAY);
 	}
 
 	public void start() {
 		try {
-			loader.paint(image.getGraphics());
+			final Graphics g = buffers.createPaintGraphics();
+			loader.paint(g);
+			g.dispose();
+			buffers.present();
 			loader.load();
 			if (loader.getTargetName() == null) {
 				return;
@@ -118,14 +121,14 @@ public class Bot {
 	}
 
 	public void resize(int width, int height) {
-		backBuffer = new BufferedImage(width, height,
-				BufferedImage.TYPE_INT_RGB);
-		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		buffers.resize(width, height);
 		// client reads size of loader applet for drawing
 		loader.setSize(width, height);
 		// simulate loader repaint awt event dispatch
-		loader.update(backBuffer.getGraphics());
-		loader.paint(backBuffer.getGraphics());
+		final Graphics g = buffers.createClientGraphics();
+		loader.update(g);
+		loader.paint(g);
+		g.dispose();
 	}
 
 	public boolean setAccount(final String name) {
@@ -147,6 +150,18 @@ public class Bot {
 		this.panel = c;
 	}
 
+	public Component getPanel() {
+		return panel;
+	}
+
+	public FrameScheduler getFrameScheduler() {
+		return frameScheduler;
+	}
+
+	public void setFrameScheduler(FrameScheduler frameScheduler) {
+		this.frameScheduler = frameScheduler;
+	}
+
 	public void addListener(Class<?> clazz) {
 		EventListener el = instantiateListener(clazz);
 		listeners.put(clazz.getName(), el);
@@ -179,22 +194,33 @@ public class Bot {
 	}
 
 	public Graphics getBufferGraphics() {
-		Graphics back = backBuffer.getGraphics();
+		Graphics back = buffers.createPaintGraphics();
 		paintEvent.graphics = back;
 		textPaintEvent.graphics = back;
 		textPaintEvent.idx = 0;
 		eventManager.processEvent(paintEvent);
 		eventManager.processEvent(textPaintEvent);
 		back.dispose();
-		image.getGraphics().drawImage(backBuffer, 0, 0, null);
-		if (panel != null) {
-			panel.repaint();
+		final Component p = panel;
+		final boolean presenting = p != null && frameScheduler.isPresenting(this);
+		if (presenting || presentRequested) {
+			presentRequested = false;
+			buffers.present();
+			if (presenting) {
+				p.repaint();
+			}
 		}
-		return backBuffer.getGraphics();
+		return buffers.createClientGraphics();
 	}
 
+	/**
+	 * Gets the most recently completed frame. Frames are not published while
+	 * the bot is not being displayed, so this also requests that the next
+	 * frame is published for callers that poll it, such as the home screen.
+	 */
 	public BufferedImage getImage() {
-		return image;
+		presentRequested = true;
+		return buffers.getFront();
 	}
 
 	public BotStub getBotStub() {
@@ -0,0 +1,99 @@
+package org.rsbot.bot;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A ring of three frame buffers. The client and paint listeners draw into
+ * the back buffer; presenting a frame publishes it by reference and moves
+ * on to the next buffer, so the frame being displayed is never drawn to.
+ * <p/>
+ * Graphics contexts are not reused: the client and paint listeners are
+ * given new contexts every frame, so that state set on one frame does not
+ * leak into the next, and presenting copies the completed frame into the
+ * next buffer. What is saved is the image allocation, since the backing
+ * images are kept across resizes when large enough, and the copy for
+ * bots that are not displayed, which never present.
+ * <p/>
+ * All methods may be called from any thread.
+ */
+class FrameBuffers {
+
+	private static final int COUNT = 3;
+
+	private final BufferedImage[] images = new BufferedImage[COUNT];
+	private final BufferedImage[] frames = new BufferedImage[COUNT];
+	private final Graphics2D[] copyGraphics = new Graphics2D[COUNT];
+
+	private int back;
+	private volatile BufferedImage front;
+
+	FrameBuffers(int width, int height) {
+		resize(width, height);
+	}
+
+	/**
+	 * Resizes all buffers, only allocating new images when the existing
+	 * ones are too small. Contexts created before the resize keep drawing
+	 * to the old frames.
+	 */
+	synchronized void resize(int width, int height) {
+		for (int i = 0; i < COUNT; ++i) {
+			BufferedImage image = images[i];
+			if (image == null || image.getWidth() < width || image.getHeight() < height) {
+				final int w = image == null ? width : Math.max(width, image.getWidth());
+				final int h = image == null ? height : Math.max(height, image.getHeight());
+				image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+				images[i] = image;
+			}
+			final BufferedImage frame = image.getWidth() == width && image.getHeight() == height
+					? image : image.getSubimage(0, 0, width, height);
+			if (copyGraphics[i] != null) {
+				copyGraphics[i].dispose();
+			}
+			frames[i] = frame;
+			copyGraphics[i] = frame.createGraphics();
+		}
+		front = frames[(back + COUNT - 1) % COUNT];
+	}
+
+	/**
+	 * Creates a context for the client to draw the next frame with. The
+	 * caller owns the context.
+	 */
+	synchronized Graphics2D createClientGraphics() {
+		return frames[back].createGraphics();
+	}
+
+	/**
+	 * Creates a context for paint listeners to draw over the current frame
+	 * with. The caller must dispose it once painting is done.
+	 */
+	synchronized Graphics2D createPaintGraphics() {
+		return frames[back].createGraphics();
+	}
+
+	synchronized BufferedImage getBack() {
+		return frames[back];
+	}
+
+	/**
+	 * Gets the most recently presented frame.
+	 */
+	BufferedImage getFront() {
+		return front;
+	}
+
+	/**
+	 * Publishes the back buffer as the front buffer and moves on to the
+	 * next buffer, carrying the completed frame over so that partial
+	 * redraws by the client remain intact.
+	 */
+	synchronized void present() {
+		final BufferedImage completed = frames[back];
+		front = completed;
+		back = (back + 1) % COUNT;
+		copyGraphics[back].drawImage(completed, 0, 0, null);
+	}
+
+}
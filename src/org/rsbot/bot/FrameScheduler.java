@@ -0,0 +1,138 @@
+package org.rsbot.bot;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Paces the client's render loop. The client requests graphics once per
+ * frame; the scheduler delays that request so that frames start no more
+ * often than the current frame period. Time the previous frame spent in
+ * the client and in paint listeners counts towards the period.
+ */
+public abstract class FrameScheduler {
+
+	/**
+	 * Renders at a fixed rate, dropping to the background rate while
+	 * rendering is disabled.
+	 */
+	public static class TargetFps extends FrameScheduler {
+
+		private final long period;
+		private final long slowPeriod;
+
+		public TargetFps(int fps, int slowFps) {
+			period = toPeriod(fps);
+			slowPeriod = toPeriod(slowFps);
+		}
+
+		@Override
+		protected long getFramePeriod(Bot bot) {
+			return bot.disableRendering ? slowPeriod : period;
+		}
+
+	}
+
+	/**
+	 * Renders at the foreground rate while the bot's panel is visible and
+	 * rendering is enabled, and at the background rate otherwise.
+	 */
+	public static class Adaptive extends FrameScheduler {
+
+		private final long foregroundPeriod;
+		private final long backgroundPeriod;
+
+		public Adaptive(int foregroundFps, int backgroundFps) {
+			foregroundPeriod = toPeriod(foregroundFps);
+			backgroundPeriod = toPeriod(backgroundFps);
+		}
+
+		@Override
+		protected long getFramePeriod(Bot bot) {
+			if (bot.disableRendering || !isPanelVisible(bot)) {
+				return backgroundPeriod;
+			}
+			return foregroundPeriod;
+		}
+
+	}
+
+	/**
+	 * Renders at a fixed rate and never presents frames to a panel.
+	 */
+	public static class Headless extends FrameScheduler {
+
+		private final long period;
+
+		public Headless(int fps) {
+			period = toPeriod(fps);
+		}
+
+		@Override
+		protected long getFramePeriod(Bot bot) {
+			return period;
+		}
+
+		@Override
+		public boolean isPresenting(Bot bot) {
+			return false;
+		}
+
+	}
+
+	private long lastFrame;
+
+	/**
+	 * Gets the minimum time between the start of two frames, in nanoseconds.
+	 */
+	protected abstract long getFramePeriod(Bot bot);
+
+	/**
+	 * Whether completed frames should be copied out of the back buffer for
+	 * display. Paint listeners run regardless.
+	 */
+	public boolean isPresenting(Bot bot) {
+		return isPanelVisible(bot);
+	}
+
+	/**
+	 * Blocks the calling render thread until the next frame is due.
+	 */
+	public void beginFrame(Bot bot) {
+		final long period = getFramePeriod(bot);
+		final long now = System.nanoTime();
+		final long next = lastFrame + period;
+		if (next > now) {
+			final long wait = next - now;
+			try {
+				Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+			} catch (InterruptedException ignored) {
+			}
+			lastFrame = next;
+		} else {
+			lastFrame = now;
+		}
+	}
+
+	/**
+	 * Whether the bot's panel is showing on screen in a window that is not
+	 * minimized.
+	 */
+	protected static boolean isPanelVisible(Bot bot) {
+		final Component panel = bot.getPanel();
+		if (panel == null || !panel.isShowing()) {
+			return false;
+		}
+		final Window window = panel instanceof Window ? (Window) panel
+				: SwingUtilities.getWindowAncestor(panel);
+		return !(window instanceof Frame)
+				|| (((Frame) window).getExtendedState() & Frame.ICONIFIED) == 0;
+	}
+
+	private static long toPeriod(int fps) {
+		if (fps <= 0) {
+			throw new IllegalArgumentException("fps <= 0");
+		}
+		return 1000000000L / fps;
+	}
+
+}
@@ -4,6 +4,7 @@ import java.awt.*;
 import java.io.*;
 import java.net.SocketPermission;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.security.CodeSigner;
 import java.security.CodeSource;
 import java.security.Permissions;
@@ -17,10 +18,12 @@ import java.util.PropertyPermission;
  */
 public final class RSClassLoader extends ClassLoader {
 
-	private Map<String, byte[]> classes;
+	private Map<String, ByteBuffer> classes;
 	private ProtectionDomain domain;
+	private final Bot bot;
 
-	public RSClassLoader(Map<String, byte[]> classes, URL source) {
+	public RSClassLoader(Map<String, ByteBuffer> classes, URL source, Bot bot) {
+		this.bot = bot;
 		try {
 			CodeSource codeSource = new CodeSource(source, (CodeSigner[]) null);
 			domain = new ProtectionDomain(codeSource, getPermissions());
@@ -46,7 +49,7 @@ public final class RSClassLoader extends ClassLoader {
 				byte[] data = bos.toByteArray();
 
 				//Store it so we can load it
-				this.classes.put("org.rsbot.client.RandomAccessFile", data);
+				this.classes.put("org.rsbot.client.RandomAccessFile", ByteBuffer.wrap(data));
 			} catch (IOException e) {
 				e.printStackTrace();
 			} finally {
@@ -58,6 +61,13 @@ public final class RSClassLoader extends ClassLoader {
 		}
 	}
 
+	/**
+	 * Gets the bot whose client classes this loader defines.
+	 */
+	public Bot getBot() {
+		return bot;
+	}
+
 	private Permissions getPermissions() {
 		final Permissions ps = new Permissions();
 		ps.add(new AWTPermission("accessEventQueue"));
@@ -98,8 +108,8 @@ public final class RSClassLoader extends ClassLoader {
 	@Override
 	public final Class<?> loadClass(String name) throws ClassNotFoundException {
 		if (classes.containsKey(name)) {
-			final byte buffer[] = classes.remove(name);
-			return defineClass(name, buffer, 0, buffer.length, domain);
+			final ByteBuffer buffer = classes.remove(name).duplicate();
+			return defineClass(name, buffer, domain);
 		}
 		return super.loadClass(name);
 	}
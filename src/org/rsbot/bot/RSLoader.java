@@ -2,7 +2,6 @@ package org.rsbot.bot;
 
 import org.rsbot.Application;
 import org.rsbot.client.Loader;
-import org.rsbot.loader.ClientLoader;
 import org.rsbot.loader.script.ParseException;
 import org.rsbot.util.GlobalConfiguration;
 
@@ -39,11 +38,23 @@ public class RSLoader extends Applet implements Runnable, Loader {
 	 */
 	private RSClassLoader classLoader;
 
+	private SharedClient shared;
+
+	private final Bot bot;
+
+	public RSLoader(Bot bot) {
+		this.bot = bot;
+	}
+
 	@Override
 	public final synchronized void destroy() {
 		if (client != null) {
 			client.destroy();
 		}
+		if (shared != null) {
+			SharedClient.release(shared);
+			shared = null;
+		}
 	}
 
 	@Override
@@ -104,18 +115,9 @@ public class RSLoader extends Applet implements Runnable, Loader {
 
 	public void load() {
 		try {
-			WebLoader webLoader = new WebLoader();
-			if (webLoader.load()) {
-				ClientLoader cl = new ClientLoader();
-				cl.init(new URL(GlobalConfiguration.Paths.URLs.UPDATE),
-						new File(GlobalConfiguration.Paths.getModScriptCache()));
-				cl.load(new File(GlobalConfiguration.Paths.getClientCache()),
-						new File(GlobalConfiguration.Paths.getVersionCache()));
-				targetName = cl.getTargetName();
-				classLoader = new RSClassLoader(cl.getClasses(), new URL("http://" + targetName + ".com/"));
-			} else {
-				log.severe("Unable to download web data.");
-			}
+			shared = SharedClient.acquire();
+			targetName = shared.getTargetName();
+			classLoader = new RSClassLoader(shared.getClasses(), new URL("http://" + targetName + ".com/"), bot);
 		} catch (IOException ex) {
 			log.severe("Unable to load client - " + ex.getMessage());
 		} catch (ParseException ex) {
@@ -0,0 +1,79 @@
+package org.rsbot.bot;
+
+import org.rsbot.loader.ClientLoader;
+import org.rsbot.loader.script.ParseException;
+import org.rsbot.util.GlobalConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The processed client classes, loaded once and shared by every bot in the
+ * process. Bots acquire a reference while loading and release it when their
+ * loader is destroyed; once the last reference is released the classes are
+ * dropped, so the next bot loads afresh and picks up any client update.
+ * <p/>
+ * Concurrent acquirers wait for the first to finish loading rather than
+ * loading the client themselves.
+ */
+final class SharedClient {
+
+	private static SharedClient instance;
+	private static int references;
+
+	private final String targetName;
+	private final Map<String, ByteBuffer> classes;
+
+	private SharedClient(String targetName, Map<String, ByteBuffer> classes) {
+		this.targetName = targetName;
+		this.classes = classes;
+	}
+
+	public static synchronized SharedClient acquire() throws IOException, ParseException {
+		if (instance == null) {
+			instance = load();
+		}
+		references++;
+		return instance;
+	}
+
+	public static synchronized void release(SharedClient client) {
+		if (client == instance && --references == 0) {
+			instance = null;
+		}
+	}
+
+	private static SharedClient load() throws IOException, ParseException {
+		WebLoader webLoader = new WebLoader();
+		if (!webLoader.load()) {
+			throw new IOException("Unable to download web data.");
+		}
+		ClientLoader cl = new ClientLoader();
+		cl.init(new URL(GlobalConfiguration.Paths.URLs.UPDATE),
+				new File(GlobalConfiguration.Paths.getModScriptCache()));
+		cl.load(new File(GlobalConfiguration.Paths.getClientCache()),
+				new File(GlobalConfiguration.Paths.getVersionCache()));
+		Map<String, ByteBuffer> classes = cl.getClasses();
+		for (Map.Entry<String, ByteBuffer> entry : classes.entrySet()) {
+			entry.setValue(entry.getValue().asReadOnlyBuffer());
+		}
+		return new SharedClient(cl.getTargetName(), classes);
+	}
+
+	public String getTargetName() {
+		return targetName;
+	}
+
+	/**
+	 * Gets a private copy of the class map for one bot's class loader. The
+	 * class buffers themselves are shared and read-only.
+	 */
+	public Map<String, ByteBuffer> getClasses() {
+		return new HashMap<String, ByteBuffer>(classes);
+	}
+
+}
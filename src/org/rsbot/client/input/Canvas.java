@@ -41,11 +41,7 @@ public class Canvas extends java.awt.Canvas {
 				toshi = true;
 			}
 		}
-		try {
-			Thread.sleep(bot.disableRendering ? SLOW_GRAPHICS_DELAY
-					: GRAPHICS_DELAY);
-		} catch (InterruptedException ignored) {
-		}
+		bot.getFrameScheduler().beginFrame(bot);
 		return bot.getBufferGraphics();
 	}
 
@@ -4,8 +4,6 @@ import org.rsbot.event.events.RSEvent;
 
 import java.util.EventListener;
 import java.util.EventObject;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.logging.Logger;
 
 public class EventManager implements Runnable {
@@ -26,32 +24,42 @@ public class EventManager implements Runnable {
 	private final Logger log = Logger.getLogger(EventManager.class.getName());
 
 	private final EventMulticaster multicaster = new EventMulticaster();
-	private final Map<Integer, EventObject> queue = new HashMap<Integer, EventObject>();
+	private final EventQueue queue;
 
 	private final Object threadLock = new Object();
 
-	private Thread eventThread;
+	private volatile Thread eventThread;
+
+	public EventManager() {
+		this(EventQueue.DEFAULT_CAPACITY, EventQueue.OverflowPolicy.COALESCE);
+	}
+
+	/**
+	 * @param capacity the maximum number of pending events.
+	 * @param policy   what to do with events dispatched to a full queue.
+	 */
+	public EventManager(int capacity, EventQueue.OverflowPolicy policy) {
+		queue = new EventQueue(capacity, policy);
+	}
 
 	/**
 	 * Adds the event to the queue for the EventManager to process.
 	 * <p/>
 	 * Events are processed with the default mask.
+	 *
+	 * @return <tt>true</tt> if the event was queued; <tt>false</tt> if it
+	 *         was dropped because the queue is full behind a pending kill.
 	 */
-	public void dispatchEvent(EventObject e) {
-		synchronized (queue) {
-			boolean added = false;
-			for (int off = 0; off < queue.size(); ++off) {
-				if (!queue.containsKey(off)) {
-					queue.put(off, e);
-					added = true;
-					break;
-				}
-			}
-			if (!added) {
-				queue.put(queue.size(), e);
-			}
-			queue.notifyAll();
-		}
+	public boolean dispatchEvent(EventObject e) {
+		return queue.offer(e, Thread.currentThread() == eventThread);
+	}
+
+	/**
+	 * Gets the event queue, for inspecting its depth, drop and latency
+	 * counters.
+	 */
+	public EventQueue getQueue() {
+		return queue;
 	}
 
 	/**
@@ -91,8 +99,9 @@ public class EventManager implements Runnable {
 	public void killThread(boolean wait) {
 		EventObject event = new KillEvent();
 		synchronized (event) {
-			dispatchEvent(event);
-			if (wait) {
+			// if dropped, a kill is already pending and nothing would
+			// notify this one
+			if (dispatchEvent(event) && wait) {
 				try {
 					event.wait();
 				} catch (InterruptedException e) {
@@ -139,24 +148,12 @@ public class EventManager implements Runnable {
 		}
 		while (true) {
 			try {
-				EventObject event = null;
-				synchronized (queue) {
-					while (queue.isEmpty()) {
-						try {
-							queue.wait();
-						} catch (final Exception e) {
-							log.info("Event Queue: " + e.toString());
-						}
-					}
-					int emptySpots = 0;
-					for (int off = 0; off < queue.size() + emptySpots; ++off) {
-						if (!queue.containsKey(off)) {
-							emptySpots++;
-							continue;
-						}
-						event = queue.remove(off);
-						break;
-					}
+				EventObject event;
+				try {
+					event = queue.take();
+				} catch (final InterruptedException e) {
+					log.info("Event Queue: " + e.toString());
+					continue;
 				}
 				if (event instanceof KillEvent) {
 					eventThread = null;
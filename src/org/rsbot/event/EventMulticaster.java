@@ -8,6 +8,7 @@ import org.rsbot.event.listeners.TextPaintListener;
 
 import java.awt.event.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class EventMulticaster implements EventListener {
 
@@ -24,6 +25,9 @@ public class EventMulticaster implements EventListener {
 	public static final long PAINT_EVENT = 0x1000;
 	public static final long TEXT_PAINT_EVENT = 0x2000;
 
+	/**
+	 * Guards mutation of the tree. Firing events never takes this lock.
+	 */
 	private static final Object treeLock = new Object();
 
 	/**
@@ -121,11 +125,270 @@ public class EventMulticaster implements EventListener {
 		return mask;
 	}
 
+	/**
+	 * Invokes the listener method for one kind of event. Resolved once per
+	 * event so that dispatch runs straight over the matching listeners.
+	 */
+	private static abstract class Invoker {
+		final Class<? extends EventListener> type;
+		final long mask;
+
+		Invoker(Class<? extends EventListener> type, long mask) {
+			this.type = type;
+			this.mask = mask;
+		}
+
+		abstract void invoke(EventListener el, EventObject e);
+	}
+
+	private static final Invoker MOUSE_PRESSED = new Invoker(MouseListener.class, MOUSE_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((MouseListener) el).mousePressed((MouseEvent) e);
+		}
+	};
+
+	private static final Invoker MOUSE_RELEASED = new Invoker(MouseListener.class, MOUSE_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((MouseListener) el).mouseReleased((MouseEvent) e);
+		}
+	};
+
+	private static final Invoker MOUSE_CLICKED = new Invoker(MouseListener.class, MOUSE_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((MouseListener) el).mouseClicked((MouseEvent) e);
+		}
+	};
+
+	private static final Invoker MOUSE_ENTERED = new Invoker(MouseListener.class, MOUSE_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((MouseListener) el).mouseEntered((MouseEvent) e);
+		}
+	};
+
+	private static final Invoker MOUSE_EXITED = new Invoker(MouseListener.class, MOUSE_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((MouseListener) el).mouseExited((MouseEvent) e);
+		}
+	};
+
+	private static final Invoker MOUSE_MOVED = new Invoker(MouseMotionListener.class, MOUSE_MOTION_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((MouseMotionListener) el).mouseMoved((MouseEvent) e);
+		}
+	};
+
+	private static final Invoker MOUSE_DRAGGED = new Invoker(MouseMotionListener.class, MOUSE_MOTION_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((MouseMotionListener) el).mouseDragged((MouseEvent) e);
+		}
+	};
+
+	private static final Invoker MOUSE_WHEEL = new Invoker(MouseWheelListener.class, MOUSE_WHEEL_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((MouseWheelListener) el).mouseWheelMoved((MouseWheelEvent) e);
+		}
+	};
+
+	private static final Invoker FOCUS_GAINED = new Invoker(FocusListener.class, FOCUS_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((FocusListener) el).focusGained((FocusEvent) e);
+		}
+	};
+
+	private static final Invoker FOCUS_LOST = new Invoker(FocusListener.class, FOCUS_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((FocusListener) el).focusLost((FocusEvent) e);
+		}
+	};
+
+	private static final Invoker KEY_TYPED = new Invoker(KeyListener.class, KEY_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((KeyListener) el).keyTyped((KeyEvent) e);
+		}
+	};
+
+	private static final Invoker KEY_PRESSED = new Invoker(KeyListener.class, KEY_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((KeyListener) el).keyPressed((KeyEvent) e);
+		}
+	};
+
+	private static final Invoker KEY_RELEASED = new Invoker(KeyListener.class, KEY_EVENT) {
+		void invoke(EventListener el, EventObject e) {
+			((KeyListener) el).keyReleased((KeyEvent) e);
+		}
+	};
+
+	/**
+	 * Invokers for RSEvents, keyed by event class.
+	 */
+	private static final Map<Class<?>, Invoker> rsInvokers = new ConcurrentHashMap<Class<?>, Invoker>();
+
+	/**
+	 * Resolves the invoker for an event, or <tt>null</tt> if the event is
+	 * not one that is dispatched to listeners.
+	 */
+	private static Invoker getInvoker(EventObject e) {
+		if (e instanceof MouseEvent) {
+			switch (((MouseEvent) e).getID()) {
+				case MouseEvent.MOUSE_PRESSED:
+					return MOUSE_PRESSED;
+				case MouseEvent.MOUSE_RELEASED:
+					return MOUSE_RELEASED;
+				case MouseEvent.MOUSE_CLICKED:
+					return MOUSE_CLICKED;
+				case MouseEvent.MOUSE_ENTERED:
+					return MOUSE_ENTERED;
+				case MouseEvent.MOUSE_EXITED:
+					return MOUSE_EXITED;
+				case MouseEvent.MOUSE_MOVED:
+					return MOUSE_MOVED;
+				case MouseEvent.MOUSE_DRAGGED:
+					return MOUSE_DRAGGED;
+				case MouseEvent.MOUSE_WHEEL:
+					return MOUSE_WHEEL;
+			}
+		} else if (e instanceof FocusEvent) {
+			switch (((FocusEvent) e).getID()) {
+				case FocusEvent.FOCUS_GAINED:
+					return FOCUS_GAINED;
+				case FocusEvent.FOCUS_LOST:
+					return FOCUS_LOST;
+			}
+		} else if (e instanceof KeyEvent) {
+			switch (((KeyEvent) e).getID()) {
+				case KeyEvent.KEY_TYPED:
+					return KEY_TYPED;
+				case KeyEvent.KEY_PRESSED:
+					return KEY_PRESSED;
+				case KeyEvent.KEY_RELEASED:
+					return KEY_RELEASED;
+			}
+		} else if (e instanceof RSEvent) {
+			Invoker inv = rsInvokers.get(e.getClass());
+			if (inv == null) {
+				final RSEvent rse = (RSEvent) e;
+				inv = new Invoker(rse.getListenerType(), rse.getMask()) {
+					void invoke(EventListener el, EventObject e) {
+						((RSEvent) e).dispatch(el);
+					}
+				};
+				rsInvokers.put(e.getClass(), inv);
+			}
+			return inv;
+		}
+		return null;
+	}
+
+	/**
+	 * An immutable view of the listeners, replaced whenever the tree is
+	 * mutated so that events can be fired without holding the tree lock.
+	 */
+	private static final class Snapshot {
+		static final EventListener[] NO_LISTENERS = new EventListener[0];
+
+		final EventListener[] listeners;
+		final long[] masks;
+		final long enabledMask;
+
+		/**
+		 * The listeners other than nested multicasters interested in each
+		 * single-bit event mask, indexed by bit position, in registration
+		 * order.
+		 */
+		final EventListener[][] byBit = new EventListener[64][];
+
+		/**
+		 * The nested multicasters and their masks.
+		 */
+		final EventMulticaster[] children;
+		final long[] childMasks;
+
+		/**
+		 * The dispatch list for each invoker fired with its own mask, filled
+		 * lazily.
+		 */
+		final Map<Invoker, EventListener[]> dispatchLists = new ConcurrentHashMap<Invoker, EventListener[]>();
+
+		Snapshot(List<EventListener> listeners, List<Long> masks, long enabledMask) {
+			final int len = listeners.size();
+			this.listeners = listeners.toArray(new EventListener[len]);
+			this.masks = new long[len];
+			int nChildren = 0;
+			for (int i = 0; i < len; i++) {
+				this.masks[i] = masks.get(i);
+				if (this.listeners[i] instanceof EventMulticaster) {
+					nChildren++;
+				}
+			}
+			this.enabledMask = enabledMask;
+			children = new EventMulticaster[nChildren];
+			childMasks = new long[nChildren];
+			for (int i = 0, j = 0; i < len; i++) {
+				if (this.listeners[i] instanceof EventMulticaster) {
+					children[j] = (EventMulticaster) this.listeners[i];
+					childMasks[j++] = this.masks[i];
+				}
+			}
+			final EventListener[] buf = new EventListener[len];
+			for (int bit = 0; bit < 64; bit++) {
+				final long b = 1L << bit;
+				int n = 0;
+				for (int i = 0; i < len; i++) {
+					if ((this.masks[i] & b) != 0 && !(this.listeners[i] instanceof EventMulticaster)) {
+						buf[n++] = this.listeners[i];
+					}
+				}
+				byBit[bit] = n == 0 ? NO_LISTENERS : Arrays.copyOf(buf, n);
+			}
+		}
+
+		/**
+		 * Gets the listeners an event should be invoked on: those whose mask
+		 * intersects the given mask and that implement the invoker's
+		 * listener type.
+		 */
+		EventListener[] getDispatchList(Invoker inv, long mask) {
+			if (mask == inv.mask) {
+				EventListener[] list = dispatchLists.get(inv);
+				if (list == null) {
+					list = buildDispatchList(inv, mask);
+					dispatchLists.put(inv, list);
+				}
+				return list;
+			}
+			return buildDispatchList(inv, mask);
+		}
+
+		private EventListener[] buildDispatchList(Invoker inv, long mask) {
+			final EventListener[] candidates;
+			if (mask != 0 && (mask & (mask - 1)) == 0) {
+				candidates = byBit[Long.numberOfTrailingZeros(mask)];
+			} else {
+				candidates = listeners;
+			}
+			final EventListener[] buf = new EventListener[candidates.length];
+			int n = 0;
+			for (int i = 0; i < candidates.length; i++) {
+				final EventListener el = candidates[i];
+				if (candidates == listeners && ((masks[i] & mask) == 0 || el instanceof EventMulticaster)) {
+					continue;
+				}
+				if (inv.type.isInstance(el)) {
+					buf[n++] = el;
+				}
+			}
+			return n == 0 ? NO_LISTENERS : Arrays.copyOf(buf, n);
+		}
+	}
+
 	private long enabledMask;
 	private final List<Long> listenerMasks = new ArrayList<Long>();
 
 	private final List<EventListener> listeners = new ArrayList<EventListener>(5);
 
+	private volatile Snapshot snapshot = new Snapshot(listeners, listenerMasks, 0);
+
 	private EventMulticaster parent;
 
 	/**
@@ -185,7 +448,8 @@ public class EventMulticaster implements EventListener {
 	}
 
 	/**
-	 * Walks up the tree as necessary reseting the masks to the minimum.
+	 * Walks up the tree as necessary reseting the masks to the minimum and
+	 * publishing a fresh snapshot for every multicaster touched.
 	 * <p/>
 	 * Has to hold TreeLock.
 	 */
@@ -205,10 +469,12 @@ public class EventMulticaster implements EventListener {
 				}
 				mask |= m;
 			}
-			if (mask == cur.enabledMask) {
+			final boolean unchanged = mask == cur.enabledMask;
+			cur.enabledMask = mask;
+			cur.snapshot = new Snapshot(cur.listeners, cur.listenerMasks, mask);
+			if (unchanged) {
 				break;
 			}
-			cur.enabledMask = mask;
 		}
 	}
 
@@ -221,71 +487,26 @@ public class EventMulticaster implements EventListener {
 
 	/**
 	 * Fires an event to all listeners, restricted by the mask.
+	 * <p/>
+	 * No lock is held while listeners run; listeners added or removed during
+	 * dispatch take effect from the next event.
 	 */
 	public void fireEvent(EventObject e, long mask) {
-		synchronized (EventMulticaster.treeLock) {
-			final int len = listeners.size();
-			for (int i = 0; i < len; i++) {
-				long m = listenerMasks.get(i);
-				if (m != 12288 && (m & mask) == 0) {
-					continue;
-				}
-				EventListener el = listeners.get(i);
-				if (e instanceof MouseEvent) {
-					MouseEvent me = (MouseEvent) e;
-					switch (me.getID()) {
-						case MouseEvent.MOUSE_PRESSED:
-							((MouseListener) el).mousePressed(me);
-							break;
-						case MouseEvent.MOUSE_RELEASED:
-							((MouseListener) el).mouseReleased(me);
-							break;
-						case MouseEvent.MOUSE_CLICKED:
-							((MouseListener) el).mouseClicked(me);
-							break;
-						case MouseEvent.MOUSE_ENTERED:
-							((MouseListener) el).mouseEntered(me);
-							break;
-						case MouseEvent.MOUSE_EXITED:
-							((MouseListener) el).mouseExited(me);
-							break;
-						case MouseEvent.MOUSE_MOVED:
-							((MouseMotionListener) el).mouseMoved(me);
-							break;
-						case MouseEvent.MOUSE_DRAGGED:
-							((MouseMotionListener) el).mouseDragged(me);
-							break;
-						case MouseEvent.MOUSE_WHEEL:
-							((MouseWheelListener) el).mouseWheelMoved((MouseWheelEvent) me);
-							break;
-					}
-				} else if (e instanceof FocusEvent) {
-					FocusEvent fe = (FocusEvent) e;
-					switch (fe.getID()) {
-						case FocusEvent.FOCUS_GAINED:
-							((FocusListener) el).focusGained(fe);
-							break;
-						case FocusEvent.FOCUS_LOST:
-							((FocusListener) el).focusLost(fe);
-							break;
-					}
-				} else if (e instanceof KeyEvent) {
-					KeyEvent ke = (KeyEvent) e;
-					switch (ke.getID()) {
-						case KeyEvent.KEY_TYPED:
-							((KeyListener) el).keyTyped(ke);
-							break;
-						case KeyEvent.KEY_PRESSED:
-							((KeyListener) el).keyPressed(ke);
-							break;
-						case KeyEvent.KEY_RELEASED:
-							((KeyListener) el).keyReleased(ke);
-							break;
-					}
-				} else if (e instanceof RSEvent) {
-					RSEvent rse = (RSEvent) e;
-					rse.dispatch(el);
-				}
+		final Invoker inv = EventMulticaster.getInvoker(e);
+		if (inv != null) {
+			fireEvent(e, mask, inv);
+		}
+	}
+
+	private void fireEvent(EventObject e, long mask, Invoker inv) {
+		final Snapshot s = snapshot;
+		for (final EventListener el : s.getDispatchList(inv, mask)) {
+			inv.invoke(el, e);
+		}
+		final EventMulticaster[] children = s.children;
+		for (int i = 0; i < children.length; i++) {
+			if ((s.childMasks[i] & mask) != 0) {
+				children[i].fireEvent(e, mask, inv);
 			}
 		}
 	}
@@ -294,21 +515,21 @@ public class EventMulticaster implements EventListener {
 	 * Gets the masks enabled for this multicaster.
 	 */
 	public long getEnabledMask() {
-		return enabledMask;
+		return snapshot.enabledMask;
 	}
 
 	/**
 	 * Returns an unmodifiable list of the backing list of listeners.
 	 */
 	public List<EventListener> getListeners() {
-		return Collections.unmodifiableList(listeners);
+		return Collections.unmodifiableList(Arrays.asList(snapshot.listeners));
 	}
 
 	/**
 	 * Returns whether the mask is enabled on this multicaster.
 	 */
 	public final boolean isEnabled(long mask) {
-		return (enabledMask & mask) != 0;
+		return (snapshot.enabledMask & mask) != 0;
 	}
 
 	/**
@@ -0,0 +1,314 @@
+package org.rsbot.event;
+
+import java.awt.event.MouseEvent;
+import java.util.EventObject;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free ring buffer of events. Any number of threads may
+ * offer events; the event thread is the only regular consumer, although
+ * producers may evict the oldest entry when applying an overflow policy.
+ * <p/>
+ * Slots are claimed with per-slot sequence numbers so that neither side
+ * ever takes a monitor.
+ */
+public class EventQueue {
+
+	/**
+	 * What to do with an event offered to a full queue.
+	 */
+	public static enum OverflowPolicy {
+		/**
+		 * Wait for the event thread to free a slot. Falls back to
+		 * {@link #DROP_OLDEST} when offered from the event thread itself.
+		 */
+		BLOCK,
+		/**
+		 * Discard the oldest pending event to make room. A pending kill
+		 * event is never discarded; events offered behind it are dropped
+		 * instead, as they would never be dispatched.
+		 */
+		DROP_OLDEST,
+		/**
+		 * Replace the newest pending event if it is superseded by the offered
+		 * one (i.e. mouse motion), otherwise behave as {@link #DROP_OLDEST}.
+		 */
+		COALESCE
+	}
+
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	private static final long BLOCK_PARK_NANOS = 100000L;
+
+	private final int mask;
+	private final AtomicReferenceArray<EventObject> buffer;
+	private final AtomicLongArray sequence;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	private final OverflowPolicy policy;
+
+	private volatile Thread waiter;
+
+	private final AtomicLong enqueued = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong enqueueNanos = new AtomicLong();
+	private final AtomicLong maxEnqueueNanos = new AtomicLong();
+
+	/**
+	 * @param capacity the minimum number of slots; rounded up to a power of
+	 *                 two.
+	 * @param policy   the overflow policy.
+	 */
+	public EventQueue(int capacity, OverflowPolicy policy) {
+		if (capacity < 2) {
+			throw new IllegalArgumentException("capacity < 2");
+		}
+		if (policy == null) {
+			throw new NullPointerException("policy");
+		}
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		mask = size - 1;
+		buffer = new AtomicReferenceArray<EventObject>(size);
+		sequence = new AtomicLongArray(size);
+		for (int i = 0; i < size; ++i) {
+			sequence.set(i, i);
+		}
+		this.policy = policy;
+	}
+
+	/**
+	 * Adds an event to the queue, applying the overflow policy if full.
+	 *
+	 * @param e the event.
+	 * @param fromConsumer <tt>true</tt> if called from the consuming thread,
+	 *                     which must never block on itself.
+	 * @return <tt>true</tt> if the event was queued; <tt>false</tt> if it
+	 *         was dropped because a kill event is pending ahead of it, in
+	 *         which case it will never be dispatched or notified.
+	 */
+	public boolean offer(EventObject e, boolean fromConsumer) {
+		final long start = System.nanoTime();
+		OverflowPolicy p = policy;
+		if (p == OverflowPolicy.BLOCK && fromConsumer) {
+			p = OverflowPolicy.DROP_OLDEST;
+		}
+		while (!tryOffer(e)) {
+			if (p == OverflowPolicy.BLOCK) {
+				LockSupport.parkNanos(BLOCK_PARK_NANOS);
+			} else if (p == OverflowPolicy.COALESCE && tryCoalesce(e)) {
+				break;
+			} else {
+				EventObject old = evict();
+				if (old instanceof EventManager.KillEvent) {
+					dropped.incrementAndGet();
+					return false;
+				}
+				if (old != null) {
+					dropped.incrementAndGet();
+					synchronized (old) {
+						old.notifyAll();
+					}
+				}
+			}
+		}
+		final long elapsed = System.nanoTime() - start;
+		enqueued.incrementAndGet();
+		enqueueNanos.addAndGet(elapsed);
+		long max;
+		while (elapsed > (max = maxEnqueueNanos.get())) {
+			if (maxEnqueueNanos.compareAndSet(max, elapsed)) {
+				break;
+			}
+		}
+		final Thread t = waiter;
+		if (t != null) {
+			LockSupport.unpark(t);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the oldest event, or returns <tt>null</tt> if none is pending.
+	 */
+	public EventObject poll() {
+		while (true) {
+			final long pos = head.get();
+			final int idx = (int) pos & mask;
+			final long seq = sequence.get(idx);
+			if (seq < pos + 1) {
+				return null;
+			}
+			if (seq == pos + 1 && head.compareAndSet(pos, pos + 1)) {
+				final EventObject e = buffer.getAndSet(idx, null);
+				sequence.set(idx, pos + mask + 1);
+				return e;
+			}
+		}
+	}
+
+	/**
+	 * Removes the oldest event to make room, unless it is a kill event,
+	 * which is left in place and returned. Returns <tt>null</tt> if none is
+	 * pending.
+	 */
+	private EventObject evict() {
+		while (true) {
+			final long pos = head.get();
+			final int idx = (int) pos & mask;
+			final long seq = sequence.get(idx);
+			if (seq < pos + 1) {
+				return null;
+			}
+			if (seq == pos + 1) {
+				final EventObject e = buffer.get(idx);
+				if (e instanceof EventManager.KillEvent && head.get() == pos) {
+					return e;
+				}
+				if (head.compareAndSet(pos, pos + 1)) {
+					buffer.set(idx, null);
+					sequence.set(idx, pos + mask + 1);
+					return e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the oldest event, waiting for one to arrive if necessary.
+	 * Only the consuming thread may call this.
+	 */
+	public EventObject take() throws InterruptedException {
+		EventObject e;
+		while ((e = poll()) == null) {
+			waiter = Thread.currentThread();
+			try {
+				if (isEmpty()) {
+					LockSupport.park(this);
+				}
+			} finally {
+				waiter = null;
+			}
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+		return e;
+	}
+
+	public boolean isEmpty() {
+		return getDepth() == 0;
+	}
+
+	/**
+	 * Gets the number of pending events.
+	 */
+	public int getDepth() {
+		final long depth = tail.get() - head.get();
+		return depth < 0 ? 0 : (int) depth;
+	}
+
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	public OverflowPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Gets the number of events accepted by the queue, including coalesced
+	 * events.
+	 */
+	public long getEnqueueCount() {
+		return enqueued.get();
+	}
+
+	/**
+	 * Gets the number of pending events discarded to make room.
+	 */
+	public long getDropCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Gets the number of events merged into an already pending event.
+	 */
+	public long getCoalesceCount() {
+		return coalesced.get();
+	}
+
+	/**
+	 * Gets the mean time spent in {@link #offer}, in nanoseconds.
+	 */
+	public long getAverageEnqueueNanos() {
+		final long count = enqueued.get();
+		return count == 0 ? 0 : enqueueNanos.get() / count;
+	}
+
+	/**
+	 * Gets the longest time spent in {@link #offer}, in nanoseconds.
+	 */
+	public long getMaxEnqueueNanos() {
+		return maxEnqueueNanos.get();
+	}
+
+	private boolean tryOffer(EventObject e) {
+		while (true) {
+			final long pos = tail.get();
+			final int idx = (int) pos & mask;
+			final long seq = sequence.get(idx);
+			if (seq < pos) {
+				return false;
+			}
+			if (seq == pos && tail.compareAndSet(pos, pos + 1)) {
+				buffer.set(idx, e);
+				sequence.set(idx, pos + 1);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Replaces the newest pending event with the given one if the former is
+	 * superseded. Loses gracefully to the consumer if it takes the slot.
+	 */
+	private boolean tryCoalesce(EventObject e) {
+		if (!isCoalescable(e)) {
+			return false;
+		}
+		final long pos = tail.get() - 1;
+		if (pos < head.get()) {
+			return false;
+		}
+		final int idx = (int) pos & mask;
+		final EventObject last = buffer.get(idx);
+		if (last == null || sequence.get(idx) != pos + 1 || !supersedes(e, last)) {
+			return false;
+		}
+		if (buffer.compareAndSet(idx, last, e)) {
+			coalesced.incrementAndGet();
+			synchronized (last) {
+				last.notifyAll();
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean isCoalescable(EventObject e) {
+		if (e instanceof MouseEvent) {
+			final int id = ((MouseEvent) e).getID();
+			return id == MouseEvent.MOUSE_MOVED || id == MouseEvent.MOUSE_DRAGGED;
+		}
+		return false;
+	}
+
+	private static boolean supersedes(EventObject e, EventObject old) {
+		return old.getClass() == e.getClass() && old.getSource() == e.getSource()
+				&& ((MouseEvent) old).getID() == ((MouseEvent) e).getID();
+	}
+}
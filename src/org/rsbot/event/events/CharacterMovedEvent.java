@@ -60,4 +60,9 @@ public class CharacterMovedEvent extends RSEvent {
 	public long getMask() {
 		return EventMulticaster.CHARACTER_MOVED_EVENT;
 	}
+
+	@Override
+	public Class<? extends EventListener> getListenerType() {
+		return CharacterMovedListener.class;
+	}
 }
@@ -49,6 +49,11 @@ public class MessageEvent extends RSEvent {
 		return EventMulticaster.MESSAGE_EVENT;
 	}
 
+	@Override
+	public Class<? extends EventListener> getListenerType() {
+		return MessageListener.class;
+	}
+
 	public String getSender() {
 		return sender;
 	}
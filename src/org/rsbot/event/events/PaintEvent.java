@@ -51,4 +51,9 @@ public class PaintEvent extends RSEvent {
 		return EventMulticaster.PAINT_EVENT;
 	}
 
+	@Override
+	public Class<? extends EventListener> getListenerType() {
+		return PaintListener.class;
+	}
+
 }
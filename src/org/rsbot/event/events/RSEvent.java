@@ -17,4 +17,12 @@ public abstract class RSEvent extends EventObject {
 
 	public abstract long getMask();
 
+	/**
+	 * Gets the listener type this event is dispatched to. Listeners that are
+	 * not instances of it are skipped even if their mask matches.
+	 */
+	public Class<? extends EventListener> getListenerType() {
+		return EventListener.class;
+	}
+
 }
@@ -29,6 +29,11 @@ public class ServerMessageEvent extends RSEvent {
 		return EventMulticaster.SERVER_MESSAGE_EVENT;
 	}
 
+	@Override
+	public Class<? extends EventListener> getListenerType() {
+		return ServerMessageListener.class;
+	}
+
 	public String getMessage() {
 		return message;
 	}
@@ -57,4 +57,9 @@ public class TextPaintEvent extends RSEvent {
 		return EventMulticaster.TEXT_PAINT_EVENT;
 	}
 
+	@Override
+	public Class<? extends EventListener> getListenerType() {
+		return TextPaintListener.class;
+	}
+
 }
@@ -27,17 +27,16 @@ public class DrawGround implements PaintListener {
 		}
 		render.setColor(Color.WHITE);
 		final RSTile location = player.getLocation();
-		for (int x = location.getX() - 25; x < location.getX() + 25; x++) {
-			for (int y = location.getY() - 25; y < location.getY() + 25; y++) {
-				final RSGroundItem[] item = ctx.groundItems.getAllAt(x, y);
-				if ((item == null) || (item.length == 0)) {
-					continue;
-				}
-				final Point screen = ctx.calc.tileToScreen(item[0].getLocation());
-				if (ctx.calc.pointOnScreen(screen)) {
-					render.drawString("" + item[0].getItem().getID(), location.getX() - 10, location.getY());
-				}
+		for (RSTile tile : ctx.calc.tilesOnScreen()) {
+			if (tile.getX() < location.getX() - 25 || tile.getX() >= location.getX() + 25
+					|| tile.getY() < location.getY() - 25 || tile.getY() >= location.getY() + 25) {
+				continue;
 			}
+			final RSGroundItem[] item = ctx.groundItems.getAllAt(tile);
+			if ((item == null) || (item.length == 0)) {
+				continue;
+			}
+			render.drawString("" + item[0].getItem().getID(), location.getX() - 10, location.getY());
 		}
 	}
 }
@@ -40,32 +40,30 @@ public class DrawObjects implements PaintListener {
 		final int locX = location.getX();
 		final int locY = location.getY();
 		final int tHeight = metrics.getHeight();
-		for (int x = locX - 25; x < locX + 25; x++) {
-			for (int y = locY - 25; y < locY + 25; y++) {
-				RSTile tile = new RSTile(x, y);
-				final Point screen = ctx.calc.tileToScreen(tile);
-				if (!ctx.calc.pointOnScreen(screen)) {
+		for (RSTile tile : ctx.calc.tilesOnScreen()) {
+			if (tile.getX() < locX - 25 || tile.getX() >= locX + 25
+					|| tile.getY() < locY - 25 || tile.getY() >= locY + 25) {
+				continue;
+			}
+			final Point screen = ctx.calc.tileToScreen(tile);
+			final RSObject[] objects = ctx.objects.getAllAt(tile);
+			int i = 0;
+			for (RSObject object : objects) {
+				Point real = ctx.calc.tileToScreen(object.getLocation());
+				if (!ctx.calc.pointOnScreen(real)) {
 					continue;
 				}
-				final RSObject[] objects = ctx.objects.getAllAt(tile);
-				int i = 0;
-				for (RSObject object : objects) {
-					Point real = ctx.calc.tileToScreen(object.getLocation());
-					if (!ctx.calc.pointOnScreen(real)) {
-						continue;
-					}
-					if (screen.x > -1) {
-						render.setColor(Color.GREEN);
-						render.fillRect(screen.x - 1, screen.y - 1, 2, 2);
-						render.setColor(Color.RED);
-						render.drawLine(screen.x, screen.y, real.x, real.y);
-					}
-					final String s = "" + object.getID();
-					final int ty = real.y - tHeight / 2 - (i++) * 15;
-					final int tx = real.x - metrics.stringWidth(s) / 2;
-					render.setColor(color_map.get(object.getType()));
-					render.drawString(s, tx, ty);
+				if (screen.x > -1) {
+					render.setColor(Color.GREEN);
+					render.fillRect(screen.x - 1, screen.y - 1, 2, 2);
+					render.setColor(Color.RED);
+					render.drawLine(screen.x, screen.y, real.x, real.y);
 				}
+				final String s = "" + object.getID();
+				final int ty = real.y - tHeight / 2 - (i++) * 15;
+				final int tx = real.x - metrics.stringWidth(s) / 2;
+				render.setColor(color_map.get(object.getType()));
+				render.drawString(s, tx, ty);
 			}
 		}
 	}
@@ -9,7 +9,11 @@ import java.awt.*;
 
 public class DrawWeb implements PaintListener {
 
+	private static final long RELOAD_INTERVAL = 5000;
+
 	private final MethodContext ctx;
+	private WebMap map;
+	private long mapLoaded;
 
 	public DrawWeb(Bot bot) {
 		this.ctx = bot.getMethodContext();
@@ -31,24 +35,29 @@ public class DrawWeb implements PaintListener {
 		if (player == null) {
 			return;
 		}
+		final long now = System.currentTimeMillis();
+		if (now - mapLoaded > RELOAD_INTERVAL) {
+			map = WebMap.load();
+			mapLoaded = now;
+		}
+		final WebMap map = this.map;
+		if (map == null) {
+			return;
+		}
 		render.setColor(Color.white);
-		final WebMap map = new Web(ctx, null, null).map();
 		final WebTile[] webTiles = map.getTiles();
-		for (WebTile webTile : webTiles) {
-			if (ctx.calc.distanceTo(webTile.tile()) < 100) {
-				Point p = tileToMap(webTile, player);
-				for (int l : webTile.connectingIndex()) {
-					Point pp = tileToMap(webTiles[l], player);
-					render.drawLine(pp.x, pp.y, p.x, p.y);
-				}
+		final int[] nearby = map.getIndicesWithin(player.getLocation(), 100);
+		for (int i : nearby) {
+			Point p = tileToMap(webTiles[i], player);
+			for (int l : webTiles[i].connectingIndex()) {
+				Point pp = tileToMap(webTiles[l], player);
+				render.drawLine(pp.x, pp.y, p.x, p.y);
 			}
 		}
 		render.setColor(Color.red);
-		for (WebTile webTile : map.getTiles()) {
-			if (ctx.calc.distanceTo(webTile.tile()) < 100) {
-				Point p = tileToMap(webTile, player);
-				render.fillRect(p.x - 2, p.y - 2, 4, 4);
-			}
+		for (int i : nearby) {
+			Point p = tileToMap(webTiles[i], player);
+			render.fillRect(p.x - 2, p.y - 2, 4, 4);
 		}
 	}
 }
@@ -313,17 +313,6 @@ public class BotGUI extends JFrame implements ActionListener, ScriptListener {
 		return panel;
 	}
 
-	public Bot getBot(Object o) {
-		ClassLoader cl = o.getClass().getClassLoader();
-		for (Bot bot : bots) {
-			if (cl == bot.getLoader().getClient().getClass().getClassLoader()) {
-				panel.offset();
-				return bot;
-			}
-		}
-		return null;
-	}
-
 	public void addBot() {
 		final Bot bot = new Bot();
 		bots.add(bot);
@@ -169,6 +169,7 @@ public class BotPanel extends JPanel {
 		if (bot == null) {
 			home.paint(g);
 		} else {
+			offset();
 			g.drawImage(bot.getImage(), offX, 0, null);
 		}
 	}
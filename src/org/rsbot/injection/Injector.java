@@ -35,6 +35,36 @@ public class Injector {
 	private static final HashMap<Integer, Integer> ID_MAP = new HashMap<Integer, Integer>();
 
 	public HashMap<String, byte[]> init(ModScript script) throws Exception {
+		loadIdMatrix();
+		ArrayList<ClassGen> classlist = new ArrayList<ClassGen>();
+		JarFile cachedJar = new JarFile(GlobalConfiguration.Paths.getClientCache());
+		Enumeration<JarEntry> entries = cachedJar.entries();
+		while (entries.hasMoreElements()) {
+			JarEntry entry = entries.nextElement();
+			String name = entry.getName();
+			if (name.endsWith(".class")) {
+				ClassParser cp = new ClassParser(cachedJar.getInputStream(entry), name);
+				classlist.add(new ClassGen(cp.parse()));
+			}
+		}
+		int size = classlist.size();
+		loaded = new ClassGen[size];
+		classlist.toArray(loaded);
+		hackObjects();
+		HashMap<String, byte[]> ret = new HashMap<String, byte[]>();
+		for (ClassGen cg : loaded) {
+			ret.put(cg.getClassName(), cg.getJavaClass().getBytes());
+		}
+		script.process(ret);
+		return ret;
+	}
+
+	/**
+	 * Downloads and loads the Easter mode id matrix used by {@link #getId}.
+	 * Needed whenever injected classes are used, including ones read back
+	 * from a cache.
+	 */
+	public void loadIdMatrix() throws IOException {
 		download(new File(GlobalConfiguration.Paths.getHackCache()), new URL(GlobalConfiguration.Paths.URLs
 				.EASTER_MATRIX));
 		File hackData = new File(GlobalConfiguration.Paths.getHackCache());
@@ -58,26 +88,6 @@ public class Injector {
 		} else {
 			log.info("Failed to download id matrix.");
 		}
-		ArrayList<ClassGen> classlist = new ArrayList<ClassGen>();
-		JarFile cachedJar = new JarFile(GlobalConfiguration.Paths.getClientCache());
-		Enumeration<JarEntry> entries = cachedJar.entries();
-		while (entries.hasMoreElements()) {
-			JarEntry entry = entries.nextElement();
-			String name = entry.getName();
-			if (name.endsWith(".class")) {
-				ClassParser cp = new ClassParser(cachedJar.getInputStream(entry), name);
-				classlist.add(new ClassGen(cp.parse()));
-			}
-		}
-		int size = classlist.size();
-		loaded = new ClassGen[size];
-		classlist.toArray(loaded);
-		hackObjects();
-		HashMap<String, byte[]> ret = new HashMap<String, byte[]>();
-		for (ClassGen cg : loaded) {
-			ret.put(cg.getClassName(), script.process(cg.getClassName(), cg.getJavaClass().getBytes()));
-		}
-		return ret;
 	}
 
 	public ClassGen findClass(String className) {
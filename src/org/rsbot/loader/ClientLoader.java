@@ -11,6 +11,7 @@ import java.io.*;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -26,7 +27,9 @@ public class ClientLoader {
 	private final Logger log = Logger.getLogger(ClientLoader.class.getName());
 
 	private ModScript script;
+	private long scriptHash;
 	private Map<String, byte[]> classes;
+	private Map<String, ByteBuffer> mapped;
 	private int world = nextWorld();
 
 	public void init(URL script, File cache) throws IOException, ParseException {
@@ -71,7 +74,9 @@ public class ClientLoader {
 			}
 		}
 
-		this.script = new ModScript(unpack(data));
+		data = unpack(data);
+		this.scriptHash = InjectedClassCache.checksum(data);
+		this.script = new ModScript(data);
 	}
 
 	public void load(File cache, File version_file) throws IOException {
@@ -91,10 +96,24 @@ public class ClientLoader {
 
 			checkVersion(jar.getInputStream(jar.getJarEntry("client.class")));
 
-			log.info("Processing client");
+			File injected = new File(GlobalConfiguration.Paths.getInjectedCache());
+			String key = InjectedClassCache.key(script.getName(), version, scriptHash, cache);
 			Injector injector = new Injector();
+			mapped = InjectedClassCache.read(injected, key);
+			if (mapped != null) {
+				log.info("Using processed client cache");
+				try {
+					injector.loadIdMatrix();
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+				return;
+			}
+
+			log.info("Processing client");
 			try {
 				classes = injector.init(script);
+				InjectedClassCache.write(injected, key, classes);
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -151,15 +170,23 @@ public class ClientLoader {
 			}
 
 			log.info("Processing client");
-			for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
-				entry.setValue(script.process(entry.getKey(), entry.getValue()));
-			}
+			script.process(classes);
 
 		}
 	}
 
-	public Map<String, byte[]> getClasses() {
-		return classes;
+	/**
+	 * Gets the processed client classes, keyed by class name.
+	 */
+	public Map<String, ByteBuffer> getClasses() {
+		if (mapped != null) {
+			return new HashMap<String, ByteBuffer>(mapped);
+		}
+		Map<String, ByteBuffer> buffers = new HashMap<String, ByteBuffer>(classes.size() * 2);
+		for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+			buffers.put(entry.getKey(), ByteBuffer.wrap(entry.getValue()));
+		}
+		return buffers;
 	}
 
 	public String getTargetName() {
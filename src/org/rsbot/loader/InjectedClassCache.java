@@ -0,0 +1,156 @@
+package org.rsbot.loader;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An on-disk cache of fully injected client classes. The file holds a key,
+ * an index of class names with offsets and lengths, and the concatenated
+ * class bytes. It is memory mapped on load, so classes can be defined
+ * straight from the mapping without being copied onto the heap.
+ * <p/>
+ * The key identifies the ModScript and the client jar the classes were
+ * produced from; a cache with any other key is ignored.
+ */
+public class InjectedClassCache {
+
+	private static final int MAGIC = 0xCAFEC0DE;
+
+	private static final Logger log = Logger.getLogger(InjectedClassCache.class.getName());
+
+	/**
+	 * Builds a cache key from the ModScript identity and checksums of the
+	 * ModScript data and the client jar.
+	 */
+	public static String key(String name, int version, long scriptHash, File client) throws IOException {
+		return name + " #" + version + " " + Long.toHexString(scriptHash) + " " + Long.toHexString(checksum(client));
+	}
+
+	public static long checksum(byte[] data) {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		return crc.getValue();
+	}
+
+	public static long checksum(File file) throws IOException {
+		CRC32 crc = new CRC32();
+		InputStream is = new BufferedInputStream(new FileInputStream(file));
+		try {
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = is.read(buffer)) != -1) {
+				crc.update(buffer, 0, n);
+			}
+		} finally {
+			is.close();
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Maps the cache file and returns read-only buffers over each class, or
+	 * <tt>null</tt> if the file is missing, unreadable or has another key.
+	 */
+	public static Map<String, ByteBuffer> read(File file, String key) {
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				MappedByteBuffer map = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+				DataInputStream in = new DataInputStream(new ByteBufferInputStream(map));
+				if (in.readInt() != MAGIC || !in.readUTF().equals(key)) {
+					return null;
+				}
+				int count = in.readInt();
+				Map<String, ByteBuffer> classes = new HashMap<String, ByteBuffer>(count * 2);
+				while (count-- > 0) {
+					String name = in.readUTF();
+					int offset = in.readInt();
+					int length = in.readInt();
+					ByteBuffer slice = map.duplicate();
+					slice.position(offset);
+					slice.limit(offset + length);
+					classes.put(name, slice.slice().asReadOnlyBuffer());
+				}
+				return classes;
+			} finally {
+				raf.close();
+			}
+		} catch (Exception ex) {
+			log.info("Ignoring injected class cache: " + ex.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the classes under the given key, replacing any existing cache.
+	 */
+	public static void write(File file, String key, Map<String, byte[]> classes) throws IOException {
+		ByteArrayOutputStream index = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(index);
+		out.writeInt(MAGIC);
+		out.writeUTF(key);
+		out.writeInt(classes.size());
+		int headerSize = out.size();
+		for (String name : classes.keySet()) {
+			headerSize += 2 + name.getBytes("UTF-8").length + 8;
+		}
+		int offset = headerSize;
+		for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeInt(offset);
+			out.writeInt(entry.getValue().length);
+			offset += entry.getValue().length;
+		}
+		out.flush();
+
+		File tmp = new File(file.getPath() + ".tmp");
+		OutputStream os = new BufferedOutputStream(new FileOutputStream(tmp));
+		try {
+			index.writeTo(os);
+			for (byte[] data : classes.values()) {
+				os.write(data);
+			}
+		} finally {
+			os.close();
+		}
+		if ((file.exists() && !file.delete()) || !tmp.renameTo(file)) {
+			tmp.delete();
+			throw new IOException("Unable to replace " + file.getName());
+		}
+	}
+
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		public ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer.duplicate();
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			return len;
+		}
+
+	}
+
+}
@@ -9,8 +9,11 @@ import org.rsbot.loader.script.adapter.*;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
 
 /**
  * @author Jacmob
@@ -32,11 +35,18 @@ public class ModScript {
 
 	public static final int MAGIC = 0xFADFAD;
 
+	/**
+	 * Creates one adapter in a class's chain. Adapters hold per-class visit
+	 * state, so a fresh chain is built for every class processed.
+	 */
+	private static interface AdapterFactory {
+		ClassAdapter create(ClassVisitor delegate);
+	}
+
 	private String name;
 	private int version;
 	private Map<String, String> attributes;
-	private Map<String, ClassAdapter> adapters;
-	private Map<String, ClassWriter> writers;
+	private Map<String, List<AdapterFactory>> adapters;
 
 	public ModScript(byte[] data) throws ParseException {
 		load(new Buffer(data));
@@ -55,21 +65,23 @@ public class ModScript {
 	}
 
 	public byte[] process(String key, byte[] data) {
-		ClassAdapter adapter = adapters.get(key);
+		ClassWriter writer = new ClassWriter(0);
+		ClassVisitor adapter = createAdapter(key, writer);
 		if (adapter != null) {
 			ClassReader reader = new ClassReader(data);
 			reader.accept(adapter, ClassReader.SKIP_FRAMES);
-			return writers.get(key).toByteArray();
+			return writer.toByteArray();
 		}
 		return data;
 	}
 
 	public byte[] process(String key, InputStream is) throws IOException {
-		ClassAdapter adapter = adapters.get(key);
+		ClassWriter writer = new ClassWriter(0);
+		ClassVisitor adapter = createAdapter(key, writer);
 		if (adapter != null) {
 			ClassReader reader = new ClassReader(is);
 			reader.accept(adapter, ClassReader.SKIP_FRAMES);
-			return writers.get(key).toByteArray();
+			return writer.toByteArray();
 		}
 		ByteArrayOutputStream os = new ByteArrayOutputStream();
 		byte[] buffer = new byte[4096];
@@ -80,13 +92,53 @@ public class ModScript {
 		return os.toByteArray();
 	}
 
+	/**
+	 * Processes every class in the map in place, spreading the classes that
+	 * have adapters over one thread per available processor.
+	 */
+	public void process(final Map<String, byte[]> classes) throws IOException {
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (final Map.Entry<String, byte[]> entry : classes.entrySet()) {
+			if (adapters.containsKey(entry.getKey())) {
+				tasks.add(new Callable<Void>() {
+					public Void call() {
+						entry.setValue(process(entry.getKey(), entry.getValue()));
+						return null;
+					}
+				});
+			}
+		}
+		int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+		if (threads <= 1) {
+			for (Callable<Void> task : tasks) {
+				try {
+					task.call();
+				} catch (Exception e) {
+					throw new IOException(e.toString());
+				}
+			}
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			throw new IOException("Interrupted while processing classes");
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause().toString());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 	private void load(Buffer buff) throws ParseException {
 		if (buff.g4() != ModScript.MAGIC) {
 			throw new ParseException("Bad magic!");
 		}
 		attributes = new HashMap<String, String>();
-		adapters = new HashMap<String, ClassAdapter>();
-		writers = new HashMap<String, ClassWriter>();
+		adapters = new HashMap<String, List<AdapterFactory>>();
 		name = buff.gstr();
 		version = buff.g2();
 		int num = buff.g2();
@@ -97,9 +149,9 @@ public class ModScript {
 				String value = buff.gstr();
 				attributes.put(key, new StringBuilder(value).reverse().toString());
 			} else if (op == Opcodes.GET_STATIC || op == Opcodes.GET_FIELD) {
-				String clazz = buff.gstr();
+				final String clazz = buff.gstr();
 				int count = buff.g2(), ptr = 0;
-				AddGetterAdapter.Field[] fields = new AddGetterAdapter.Field[count];
+				final AddGetterAdapter.Field[] fields = new AddGetterAdapter.Field[count];
 				while (ptr < count) {
 					AddGetterAdapter.Field f = new AddGetterAdapter.Field();
 					f.getter_access = buff.g4();
@@ -111,11 +163,16 @@ public class ModScript {
 
 					fields[ptr++] = f;
 				}
-				adapters.put(clazz, new AddGetterAdapter(delegate(clazz), op == Opcodes.GET_FIELD, fields));
+				final boolean virtual = op == Opcodes.GET_FIELD;
+				addAdapter(clazz, new AdapterFactory() {
+					public ClassAdapter create(ClassVisitor delegate) {
+						return new AddGetterAdapter(delegate, virtual, fields);
+					}
+				});
 			} else if (op == Opcodes.ADD_FIELD) {
-				String clazz = buff.gstr();
+				final String clazz = buff.gstr();
 				int count = buff.g2(), ptr = 0;
-				AddFieldAdapter.Field[] fields = new AddFieldAdapter.Field[count];
+				final AddFieldAdapter.Field[] fields = new AddFieldAdapter.Field[count];
 				while (ptr < count) {
 					AddFieldAdapter.Field f = new AddFieldAdapter.Field();
 					f.access = buff.g4();
@@ -123,11 +180,15 @@ public class ModScript {
 					f.desc = buff.gstr();
 					fields[ptr++] = f;
 				}
-				adapters.put(clazz, new AddFieldAdapter(delegate(clazz), fields));
+				addAdapter(clazz, new AdapterFactory() {
+					public ClassAdapter create(ClassVisitor delegate) {
+						return new AddFieldAdapter(delegate, fields);
+					}
+				});
 			} else if (op == Opcodes.ADD_METHOD) {
-				String clazz = buff.gstr();
+				final String clazz = buff.gstr();
 				int count = buff.g2(), ptr = 0;
-				AddMethodAdapter.Method[] methods = new AddMethodAdapter.Method[count];
+				final AddMethodAdapter.Method[] methods = new AddMethodAdapter.Method[count];
 				while (ptr < count) {
 					AddMethodAdapter.Method m = new AddMethodAdapter.Method();
 					m.access = buff.g4();
@@ -140,19 +201,31 @@ public class ModScript {
 					m.max_stack = buff.g1();
 					methods[ptr++] = m;
 				}
-				adapters.put(clazz, new AddMethodAdapter(delegate(clazz), methods));
+				addAdapter(clazz, new AdapterFactory() {
+					public ClassAdapter create(ClassVisitor delegate) {
+						return new AddMethodAdapter(delegate, methods);
+					}
+				});
 			} else if (op == Opcodes.ADD_INTERFACE) {
-				String clazz = buff.gstr();
-				String inter = buff.gstr();
-				adapters.put(clazz, new AddInterfaceAdapter(delegate(clazz), inter));
+				final String clazz = buff.gstr();
+				final String inter = buff.gstr();
+				addAdapter(clazz, new AdapterFactory() {
+					public ClassAdapter create(ClassVisitor delegate) {
+						return new AddInterfaceAdapter(delegate, inter);
+					}
+				});
 			} else if (op == Opcodes.SET_SUPER) {
-				String clazz = buff.gstr();
-				String superName = buff.gstr();
-				adapters.put(clazz, new SetSuperAdapter(delegate(clazz), superName));
+				final String clazz = buff.gstr();
+				final String superName = buff.gstr();
+				addAdapter(clazz, new AdapterFactory() {
+					public ClassAdapter create(ClassVisitor delegate) {
+						return new SetSuperAdapter(delegate, superName);
+					}
+				});
 			} else if (op == Opcodes.SET_SIGNATURE) {
-				String clazz = buff.gstr();
+				final String clazz = buff.gstr();
 				int count = buff.g2(), ptr = 0;
-				SetSignatureAdapter.Signature[] signatures = new SetSignatureAdapter.Signature[count];
+				final SetSignatureAdapter.Signature[] signatures = new SetSignatureAdapter.Signature[count];
 				while (ptr < count) {
 					SetSignatureAdapter.Signature s = new SetSignatureAdapter.Signature();
 					s.name = buff.gstr();
@@ -162,42 +235,69 @@ public class ModScript {
 					s.new_desc = buff.gstr();
 					signatures[ptr++] = s;
 				}
-				adapters.put(clazz, new SetSignatureAdapter(delegate(clazz), signatures));
+				addAdapter(clazz, new AdapterFactory() {
+					public ClassAdapter create(ClassVisitor delegate) {
+						return new SetSignatureAdapter(delegate, signatures);
+					}
+				});
 			} else if (op == Opcodes.INSERT_CODE) {
-				String clazz = buff.gstr();
-				String name = buff.gstr();
-				String desc = buff.gstr();
+				final String clazz = buff.gstr();
+				final String name = buff.gstr();
+				final String desc = buff.gstr();
 				int count = buff.g1();
-				Map<Integer, byte[]> fragments = new HashMap<Integer, byte[]>();
+				final Map<Integer, byte[]> fragments = new HashMap<Integer, byte[]>();
 				while (count-- > 0) {
 					int off = buff.g2();
 					byte[] code = new byte[buff.g4()];
 					buff.gdata(code, code.length, 0);
 					fragments.put(off, code);
 				}
-				adapters.put(clazz, new InsertCodeAdapter(delegate(clazz),
-						name, desc, fragments, buff.g1(), buff.g1()));
+				final int max_locals = buff.g1();
+				final int max_stack = buff.g1();
+				addAdapter(clazz, new AdapterFactory() {
+					public ClassAdapter create(ClassVisitor delegate) {
+						return new InsertCodeAdapter(delegate, name, desc, fragments, max_locals, max_stack);
+					}
+				});
 			} else if (op == Opcodes.OVERRIDE_CLASS) {
-				String old_clazz = buff.gstr();
-				String new_clazz = buff.gstr();
+				final String old_clazz = buff.gstr();
+				final String new_clazz = buff.gstr();
 				int count = buff.g1();
 				while (count-- > 0) {
-					String clazz = buff.gstr();
-					adapters.put(clazz, new OverrideClassAdapter(delegate(clazz), old_clazz, new_clazz));
+					final String clazz = buff.gstr();
+					addAdapter(clazz, new AdapterFactory() {
+						public ClassAdapter create(ClassVisitor delegate) {
+							return new OverrideClassAdapter(delegate, old_clazz, new_clazz);
+						}
+					});
 				}
 			}
 		}
 	}
 
-	private ClassVisitor delegate(String clazz) {
-		ClassAdapter delegate = adapters.get(clazz);
-		if (delegate == null) {
-			ClassWriter writer = new ClassWriter(0);
-			writers.put(clazz, writer);
-			return writer;
-		} else {
-			return delegate;
+	private void addAdapter(String clazz, AdapterFactory factory) {
+		List<AdapterFactory> chain = adapters.get(clazz);
+		if (chain == null) {
+			chain = new ArrayList<AdapterFactory>(1);
+			adapters.put(clazz, chain);
+		}
+		chain.add(factory);
+	}
+
+	/**
+	 * Builds a new adapter chain for a class that ends in the given writer,
+	 * or returns <tt>null</tt> if the class is not modified.
+	 */
+	private ClassVisitor createAdapter(String clazz, ClassWriter writer) {
+		List<AdapterFactory> chain = adapters.get(clazz);
+		if (chain == null) {
+			return null;
+		}
+		ClassVisitor visitor = writer;
+		for (AdapterFactory factory : chain) {
+			visitor = factory.create(visitor);
 		}
+		return visitor;
 	}
 
 }
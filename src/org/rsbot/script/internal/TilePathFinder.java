@@ -0,0 +1,239 @@
+package org.rsbot.script.internal;
+
+import java.util.Arrays;
+
+import static org.rsbot.script.wrappers.RSLocalPath.*;
+
+/**
+ * An A* search over a region's collision flags. All search state lives in
+ * flat arrays indexed by <tt>x * size + y</tt> that are kept between calls;
+ * entries are only trusted when stamped with the current search's
+ * generation, so nothing has to be cleared before a search starts. The open
+ * set is a binary heap of node indices that supports decreasing a node's key
+ * in place.
+ * <p/>
+ * Costs are scaled by 1000, so a straight step costs 1000 and a diagonal
+ * step 1414. The heuristic is the Chebyshev distance.
+ */
+public class TilePathFinder {
+
+	private static final int STRAIGHT = 1000;
+	private static final int DIAGONAL = 1414;
+
+	private int[][] flags;
+	private int size;
+	private int upper;
+	private int destX, destY;
+
+	private int[] g = new int[0];
+	private int[] f = new int[0];
+	private int[] parent = new int[0];
+	private int[] seen = new int[0];
+	private int[] closed = new int[0];
+	private int[] heap = new int[0];
+	private int[] heapIndex = new int[0];
+	private int heapSize;
+	private int generation;
+
+	/**
+	 * Finds a path between two tiles, both given as indices into the
+	 * collision flags.
+	 *
+	 * @param flags  The collision flags; <tt>flags[x][y]</tt>.
+	 * @param startX The start tile's x index.
+	 * @param startY The start tile's y index.
+	 * @param destX  The destination tile's x index.
+	 * @param destY  The destination tile's y index.
+	 * @return The path from start to destination inclusive, each tile packed as
+	 *         <tt>x * flags.length + y</tt>; or <tt>null</tt> if the
+	 *         destination cannot be reached.
+	 */
+	public synchronized int[] findPath(int[][] flags, int startX, int startY, int destX, int destY) {
+		final int size = flags.length;
+		if (startX < 0 || startY < 0 || startX >= size || startY >= size
+				|| destX < 0 || destY < 0 || destX >= size || destY >= size) {
+			return null;
+		}
+		prepare(flags);
+		this.destX = destX;
+		this.destY = destY;
+		final int start = startX * size + startY;
+		final int dest = destX * size + destY;
+
+		visit(start, 0, -1);
+		while (heapSize != 0) {
+			final int curr = pop();
+			if (curr == dest) {
+				return path(curr);
+			}
+			closed[curr] = generation;
+			expand(curr);
+		}
+		return null;
+	}
+
+	private void prepare(int[][] flags) {
+		this.flags = flags;
+		size = flags.length;
+		upper = size - 1;
+		final int n = size * size;
+		if (g.length < n) {
+			g = new int[n];
+			f = new int[n];
+			parent = new int[n];
+			seen = new int[n];
+			closed = new int[n];
+			heap = new int[n];
+			heapIndex = new int[n];
+			generation = 0;
+		}
+		if (++generation == 0) {
+			Arrays.fill(seen, 0);
+			Arrays.fill(closed, 0);
+			generation = 1;
+		}
+		heapSize = 0;
+	}
+
+	private void expand(int node) {
+		final int x = node / size, y = node % size;
+		final int here = flags[x][y];
+		if (y > 0 && (here & WALL_SOUTH) == 0 && (flags[x][y - 1] & BLOCKED) == 0) {
+			relax(node, node - 1, STRAIGHT);
+		}
+		if (x > 0 && (here & WALL_WEST) == 0 && (flags[x - 1][y] & BLOCKED) == 0) {
+			relax(node, node - size, STRAIGHT);
+		}
+		if (y < upper && (here & WALL_NORTH) == 0 && (flags[x][y + 1] & BLOCKED) == 0) {
+			relax(node, node + 1, STRAIGHT);
+		}
+		if (x < upper && (here & WALL_EAST) == 0 && (flags[x + 1][y] & BLOCKED) == 0) {
+			relax(node, node + size, STRAIGHT);
+		}
+		if (x > 0 && y > 0 && (here & (WALL_SOUTH_WEST | WALL_SOUTH | WALL_WEST)) == 0
+				&& (flags[x - 1][y - 1] & BLOCKED) == 0
+				&& (flags[x][y - 1] & (BLOCKED | WALL_WEST)) == 0
+				&& (flags[x - 1][y] & (BLOCKED | WALL_SOUTH)) == 0) {
+			relax(node, node - size - 1, DIAGONAL);
+		}
+		if (x > 0 && y < upper && (here & (WALL_NORTH_WEST | WALL_NORTH | WALL_WEST)) == 0
+				&& (flags[x - 1][y + 1] & BLOCKED) == 0
+				&& (flags[x][y + 1] & (BLOCKED | WALL_WEST)) == 0
+				&& (flags[x - 1][y] & (BLOCKED | WALL_NORTH)) == 0) {
+			relax(node, node - size + 1, DIAGONAL);
+		}
+		if (x < upper && y > 0 && (here & (WALL_SOUTH_EAST | WALL_SOUTH | WALL_EAST)) == 0
+				&& (flags[x + 1][y - 1] & BLOCKED) == 0
+				&& (flags[x][y - 1] & (BLOCKED | WALL_EAST)) == 0
+				&& (flags[x + 1][y] & (BLOCKED | WALL_SOUTH)) == 0) {
+			relax(node, node + size - 1, DIAGONAL);
+		}
+		if (x < upper && y < upper && (here & (WALL_NORTH_EAST | WALL_NORTH | WALL_EAST)) == 0
+				&& (flags[x + 1][y + 1] & BLOCKED) == 0
+				&& (flags[x][y + 1] & (BLOCKED | WALL_EAST)) == 0
+				&& (flags[x + 1][y] & (BLOCKED | WALL_NORTH)) == 0) {
+			relax(node, node + size + 1, DIAGONAL);
+		}
+	}
+
+	private void relax(int from, int to, int cost) {
+		if (closed[to] == generation) {
+			return;
+		}
+		final int t = g[from] + cost;
+		if (seen[to] != generation) {
+			visit(to, t, from);
+		} else if (t < g[to]) {
+			parent[to] = from;
+			g[to] = t;
+			f[to] = t + heuristic(to);
+			up(heapIndex[to]);
+		}
+	}
+
+	private void visit(int node, int cost, int from) {
+		seen[node] = generation;
+		parent[node] = from;
+		g[node] = cost;
+		f[node] = cost + heuristic(node);
+		heap[heapSize] = node;
+		heapIndex[node] = heapSize;
+		up(heapSize++);
+	}
+
+	private int heuristic(int node) {
+		int dx = node / size - destX;
+		int dy = node % size - destY;
+		if (dx < 0) {
+			dx = -dx;
+		}
+		if (dy < 0) {
+			dy = -dy;
+		}
+		return (dx < dy ? dy : dx) * STRAIGHT;
+	}
+
+	private int pop() {
+		final int top = heap[0];
+		final int last = heap[--heapSize];
+		if (heapSize != 0) {
+			heap[0] = last;
+			heapIndex[last] = 0;
+			down(0);
+		}
+		return top;
+	}
+
+	private void up(int i) {
+		final int node = heap[i];
+		final int key = f[node];
+		while (i > 0) {
+			final int p = (i - 1) >>> 1;
+			final int pn = heap[p];
+			if (f[pn] <= key) {
+				break;
+			}
+			heap[i] = pn;
+			heapIndex[pn] = i;
+			i = p;
+		}
+		heap[i] = node;
+		heapIndex[node] = i;
+	}
+
+	private void down(int i) {
+		final int node = heap[i];
+		final int key = f[node];
+		final int half = heapSize >>> 1;
+		while (i < half) {
+			int c = (i << 1) + 1;
+			int cn = heap[c];
+			final int r = c + 1;
+			if (r < heapSize && f[heap[r]] < f[cn]) {
+				c = r;
+				cn = heap[c];
+			}
+			if (key <= f[cn]) {
+				break;
+			}
+			heap[i] = cn;
+			heapIndex[cn] = i;
+			i = c;
+		}
+		heap[i] = node;
+		heapIndex[node] = i;
+	}
+
+	private int[] path(int end) {
+		int length = 0;
+		for (int p = end; p != -1; p = parent[p]) {
+			++length;
+		}
+		final int[] path = new int[length];
+		for (int p = end; p != -1; p = parent[p]) {
+			path[--length] = p;
+		}
+		return path;
+	}
+
+}
@@ -1,6 +1,6 @@
 package org.rsbot.script.methods;
 
-import org.rsbot.client.TileData;
+import org.rsbot.script.wrappers.DistanceField;
 import org.rsbot.script.wrappers.RSCharacter;
 import org.rsbot.script.wrappers.RSComponent;
 import org.rsbot.script.wrappers.RSObject;
@@ -13,18 +13,12 @@ import java.awt.*;
  */
 public class Calculations extends MethodProvider {
 
-	static class Render {
-		float absoluteX1 = 0, absoluteX2 = 0;
-		float absoluteY1 = 0, absoluteY2 = 0;
-		int xMultiplier = 512, yMultiplier = 512;
-		int zNear = 50, zFar = 3500;
-	}
-
-	static class RenderData {
-		float xOff = 0, xX = 32768, xY = 0, xZ = 0;
-		float yOff = 0, yX = 0, yY = 32768, yZ = 0;
-		float zOff = 0, zX = 0, zY = 0, zZ = 32768;
-	}
+	/**
+	 * The packed location of a point that is not on screen.
+	 *
+	 * @see #pack(int, int)
+	 */
+	public static final long OFF_SCREEN = -1L;
 
 	public static final int[] SIN_TABLE = new int[16384];
 	public static final int[] COS_TABLE = new int[16384];
@@ -37,8 +31,14 @@ public class Calculations extends MethodProvider {
 		}
 	}
 
-	private final Render render = new Render();
-	private final RenderData renderData = new RenderData();
+	private volatile Viewport viewport = Viewport.DEFAULT;
+	private final TileProjection tiles = new TileProjection();
+	private final DistanceField workspace = new DistanceField();
+
+	private final Object playerFieldLock = new Object();
+	private DistanceField playerField, spareField;
+	private int[][] playerFieldBlocks;
+	private int playerFieldPlane, playerFieldBaseX, playerFieldBaseY, playerFieldCycle;
 
 	Calculations(final MethodContext ctx) {
 		super(ctx);
@@ -66,7 +66,26 @@ public class Calculations extends MethodProvider {
 	 *         <tt>false</tt>.
 	 */
 	public boolean tileOnScreen(RSTile t) {
-		return pointOnScreen(tileToScreen(t, 0.5, 0.5, 0));
+		final long p = tileToScreenPacked(t, 0.5, 0.5, 0);
+		return pointOnScreen(unpackX(p), unpackY(p));
+	}
+
+	/**
+	 * Returns every tile of the loaded region whose centroid is on the
+	 * screen. The whole region is checked in one pass, projecting each tile
+	 * at most once for the current viewport.
+	 *
+	 * @return The tiles on screen, ordered by x, then y.
+	 * @see #tileOnScreen(RSTile)
+	 */
+	public RSTile[] tilesOnScreen() {
+		int[] bounds = getScreenBounds();
+		int[] found = tiles.onScreen(methods.client, viewport, bounds[0], bounds[1], bounds[2], bounds[3]);
+		RSTile[] onScreen = new RSTile[found.length];
+		for (int i = 0; i < found.length; i++) {
+			onScreen[i] = new RSTile(found[i] >>> 16, found[i] & 0xffff);
+		}
+		return onScreen;
 	}
 
 	/**
@@ -80,6 +99,48 @@ public class Calculations extends MethodProvider {
 		return worldToMinimap(t.getX(), t.getY());
 	}
 
+	/**
+	 * Finds the point where a given tile is shown on the minimap, without
+	 * allocating a <tt>Point</tt>.
+	 *
+	 * @param t     The RSTile to check.
+	 * @param point Receives the x and y of the point within the minimap;
+	 *              otherwise -1 and -1.
+	 * @return <tt>true</tt> if the tile is on the minimap; otherwise
+	 *         <tt>false</tt>.
+	 * @see #tileToMinimap(RSTile)
+	 */
+	public boolean tileToMinimap(RSTile t, int[] point) {
+		return unpack(worldToMinimapPacked(t.getX(), t.getY()), point);
+	}
+
+	/**
+	 * Finds the point where a given tile is shown on the minimap, reusing
+	 * the given <tt>Point</tt>.
+	 *
+	 * @param t     The RSTile to check.
+	 * @param point Set to the point within the minimap; otherwise
+	 *              <tt>(-1, -1)</tt>.
+	 * @return <tt>true</tt> if the tile is on the minimap; otherwise
+	 *         <tt>false</tt>.
+	 * @see #tileToMinimap(RSTile)
+	 */
+	public boolean tileToMinimap(RSTile t, Point point) {
+		return unpack(worldToMinimapPacked(t.getX(), t.getY()), point);
+	}
+
+	/**
+	 * Returns the packed point where a given tile is shown on the minimap.
+	 *
+	 * @param t The RSTile to check.
+	 * @return The packed point within the minimap; otherwise
+	 *         {@link #OFF_SCREEN}.
+	 * @see #tileToMinimap(RSTile)
+	 */
+	public long tileToMinimapPacked(RSTile t) {
+		return worldToMinimapPacked(t.getX(), t.getY());
+	}
+
 	/**
 	 * Checks whether a point is within the rectangle that determines the bounds
 	 * of game screen. This will work fine when in fixed mode. In resizable mode
@@ -92,7 +153,20 @@ public class Calculations extends MethodProvider {
 	 *         <tt>false</tt>.
 	 */
 	public boolean pointOnScreen(Point check) {
-		int x = check.x, y = check.y;
+		return pointOnScreen(check.x, check.y);
+	}
+
+	/**
+	 * Checks whether a point is within the rectangle that determines the bounds
+	 * of game screen.
+	 *
+	 * @param x The x of the point.
+	 * @param y The y of the point.
+	 * @return <tt>true</tt> if the point is within the rectangle; otherwise
+	 *         <tt>false</tt>.
+	 * @see #pointOnScreen(Point)
+	 */
+	public boolean pointOnScreen(int x, int y) {
 		if (methods.game.isFixed()) {
 			return x > 4 && x < methods.game.getWidth() - 253 && y > 4
 					&& y < methods.game.getHeight() - 169;
@@ -183,7 +257,46 @@ public class Calculations extends MethodProvider {
 	 */
 	public Point tileToScreen(final RSTile tile, final double dX,
 	                          final double dY, final int height) {
-		return groundToScreen(
+		return toPoint(tileToScreenPacked(tile, dX, dY, height));
+	}
+
+	/**
+	 * Finds the screen location of a tile, without allocating a
+	 * <tt>Point</tt>.
+	 *
+	 * @param point Receives the x and y of the screen location; otherwise
+	 *              -1 and -1.
+	 * @return <tt>true</tt> if the location is on screen; otherwise
+	 *         <tt>false</tt>.
+	 * @see #tileToScreen(RSTile, double, double, int)
+	 */
+	public boolean tileToScreen(final RSTile tile, final double dX,
+	                            final double dY, final int height, final int[] point) {
+		return unpack(tileToScreenPacked(tile, dX, dY, height), point);
+	}
+
+	/**
+	 * Finds the screen location of a tile, reusing the given <tt>Point</tt>.
+	 *
+	 * @param point Set to the screen location; otherwise <tt>(-1, -1)</tt>.
+	 * @return <tt>true</tt> if the location is on screen; otherwise
+	 *         <tt>false</tt>.
+	 * @see #tileToScreen(RSTile, double, double, int)
+	 */
+	public boolean tileToScreen(final RSTile tile, final double dX,
+	                            final double dY, final int height, final Point point) {
+		return unpack(tileToScreenPacked(tile, dX, dY, height), point);
+	}
+
+	/**
+	 * Returns the packed screen location of a tile.
+	 *
+	 * @return The packed screen location; otherwise {@link #OFF_SCREEN}.
+	 * @see #tileToScreen(RSTile, double, double, int)
+	 */
+	public long tileToScreenPacked(final RSTile tile, final double dX,
+	                               final double dY, final int height) {
+		return groundToScreenPacked(
 				(int) ((tile.getX() - methods.client.getBaseX() + dX) * 512),
 				(int) ((tile.getY() - methods.client.getBaseY() + dY) * 512),
 				height);
@@ -272,8 +385,7 @@ public class Calculations extends MethodProvider {
 	 *         should be accepted.
 	 */
 	public int pathLengthTo(RSTile dest, boolean isObject) {
-		RSTile curPos = methods.players.getMyPlayer().getLocation();
-		return pathLengthBetween(curPos, dest, isObject);
+		return distanceField().distanceTo(dest, isObject);
 	}
 
 	/**
@@ -287,11 +399,60 @@ public class Calculations extends MethodProvider {
 	 *         should be accepted.
 	 */
 	public int pathLengthBetween(RSTile start, RSTile dest, boolean isObject) {
-		return dijkstraDist(start.getX() - methods.client.getBaseX(), // startX
-				start.getY() - methods.client.getBaseY(), // startY
-				dest.getX() - methods.client.getBaseX(), // destX
-				dest.getY() - methods.client.getBaseY(), // destY
-				isObject); // if it's an object, accept any adjacent tile
+		return dijkstraDist(start, dest, isObject);
+	}
+
+	/**
+	 * Computes the walking distance from a tile to every tile in the loaded
+	 * region in a single search. Prefer this to repeated calls to
+	 * {@link #canReach(RSTile, boolean)} when checking many tiles.
+	 *
+	 * @param start The starting tile.
+	 * @return The distance field.
+	 */
+	public DistanceField distanceField(RSTile start) {
+		final int blocks[][] = methods.client.getRSGroundDataArray()[methods.game
+				.getPlane()].getBlocks();
+		return new DistanceField().compute(blocks, methods.client.getBaseX(),
+				methods.client.getBaseY(), start);
+	}
+
+	/**
+	 * Gets the walking distance from the player to every tile in the loaded
+	 * region. The field is cached and only computed again once the player
+	 * moves, the plane changes, the region is reloaded or a game tick has
+	 * passed, since doors and gates change the collision flags in place.
+	 * <p/>
+	 * Fields are computed into one of two buffers in turn, so a returned
+	 * field is overwritten two computations later and should not be kept.
+	 *
+	 * @return The distance field.
+	 * @see #distanceField(RSTile)
+	 */
+	public DistanceField distanceField() {
+		final RSTile start = methods.players.getMyPlayer().getLocation();
+		final int plane = methods.game.getPlane();
+		final int[][] blocks = methods.client.getRSGroundDataArray()[plane].getBlocks();
+		final int baseX = methods.client.getBaseX();
+		final int baseY = methods.client.getBaseY();
+		final int cycle = methods.client.getLoopCycle();
+		synchronized (playerFieldLock) {
+			final int elapsed = cycle - playerFieldCycle;
+			if (playerField == null || blocks != playerFieldBlocks
+					|| plane != playerFieldPlane || baseX != playerFieldBaseX
+					|| baseY != playerFieldBaseY || !start.equals(playerField.getStart())
+					|| elapsed < 0 || elapsed >= WorldSnapshot.TICK_CYCLES) {
+				final DistanceField field = spareField != null ? spareField : new DistanceField();
+				spareField = playerField;
+				playerField = field.compute(blocks, baseX, baseY, start);
+				playerFieldCycle = cycle;
+				playerFieldBlocks = blocks;
+				playerFieldPlane = plane;
+				playerFieldBaseX = baseX;
+				playerFieldBaseY = baseY;
+			}
+			return playerField;
+		}
 	}
 
 	/**
@@ -316,22 +477,41 @@ public class Calculations extends MethodProvider {
 	 *         <tt>new Point(-1, -1)</tt>.
 	 */
 	public Point worldToMinimap(double x, double y) {
-		if (distanceBetween(methods.players.getMyPlayer().getLocation(),
-				new RSTile((int) x, (int) y)) > 17) {
-			return new Point(-1, -1);
+		return toPoint(worldToMinimapPacked(x, y));
+	}
+
+	/**
+	 * Returns the packed minimap location of given absolute x and y values
+	 * in the game's 3D plane.
+	 *
+	 * @param x x value based on the game plane.
+	 * @param y y value based on the game plane.
+	 * @return The packed point within the minimap; otherwise
+	 *         {@link #OFF_SCREEN}.
+	 * @see #worldToMinimap(double, double)
+	 */
+	public long worldToMinimapPacked(double x, double y) {
+		final org.rsbot.client.RSPlayer player = methods.client.getMyRSPlayer();
+		if (player == null) {
+			return OFF_SCREEN;
+		}
+		final int dx = methods.client.getBaseX() + (player.getX() >> 9) - (int) x;
+		final int dy = methods.client.getBaseY() + (player.getY() >> 9) - (int) y;
+		if (dx * dx + dy * dy > 17 * 17) {
+			return OFF_SCREEN;
 		}
 		x -= methods.client.getBaseX();
 		y -= methods.client.getBaseY();
 		final int calculatedX = (int) (x * 4 + 2)
-				- methods.client.getMyRSPlayer().getX() / 128;
+				- player.getX() / 128;
 		final int calculatedY = (int) (y * 4 + 2)
-				- methods.client.getMyRSPlayer().getY() / 128;
+				- player.getY() / 128;
 
 		try {
 			final org.rsbot.client.RSInterface mm = methods.gui
 					.getMinimapInterface();
 			if (mm == null) {
-				return new Point(-1, -1);
+				return OFF_SCREEN;
 			}
 			final RSComponent mm2 = methods.interfaces.getComponent(mm.getID());
 
@@ -368,14 +548,14 @@ public class Calculations extends MethodProvider {
 				// if ((Math.max(calcCenterY, -calcCenterY) <= mm2.getWidth() /
 				// 2.0 * .8) && (Math.max(calcCenterX, -calcCenterX) <=
 				// mm2.getHeight() / 2 * .8))
-				return new Point(screenx, screeny);
+				return pack(screenx, screeny);
 				// else
-				// return new Point(-1, -1);
+				// return OFF_SCREEN;
 			}
 		} catch (final NullPointerException ignored) {
 		}
 
-		return new Point(-1, -1);
+		return OFF_SCREEN;
 	}
 
 	/**
@@ -389,15 +569,21 @@ public class Calculations extends MethodProvider {
 	 *         <code>new Point(-1, -1)</code>.
 	 */
 	public Point groundToScreen(final int x, final int y, final int height) {
-		if ((methods.client.getGroundByteArray() == null)
-				|| (methods.client.getTileData() == null) || (x < 512)
-				|| (y < 512) || (x > 52224) || (y > 52224)) {
-			return new Point(-1, -1);
-		}
-
-		int z = tileHeight(x, y) + height;
+		return toPoint(groundToScreenPacked(x, y, height));
+	}
 
-		return worldToScreen(x, y, z);
+	/**
+	 * Returns the packed screen location of a given point on the ground.
+	 *
+	 * @param x      x value based on the game plane.
+	 * @param y      y value based on the game plane.
+	 * @param height height offset (normal to the ground).
+	 * @return The packed screen location; otherwise {@link #OFF_SCREEN}.
+	 * @see #groundToScreen(int, int, int)
+	 */
+	public long groundToScreenPacked(final int x, final int y, final int height) {
+		final int p = tiles.groundToScreen(methods.client, viewport, x, y, height);
+		return p == -1 ? OFF_SCREEN : pack(p >>> 16, p & 0xffff);
 	}
 
 	/**
@@ -409,35 +595,7 @@ public class Calculations extends MethodProvider {
 	 *         .
 	 */
 	public int tileHeight(final int x, final int y) {
-		int p = methods.client.getPlane();
-
-		int x1 = x >> 9;
-		int y1 = y >> 9;
-
-		byte[][][] settings = methods.client.getGroundByteArray();
-
-		if ((settings != null) && (x1 >= 0) && (x1 < 104) && (y1 >= 0)
-				&& (y1 < 104)) {
-			if ((p <= 3) && ((settings[1][x1][y1] & 2) != 0)) {
-				++p;
-			}
-			TileData[] planes = methods.client.getTileData();
-
-			if (planes != null && p < planes.length && planes[p] != null) {
-				int[][] heights = planes[p].getHeights();
-				if (heights != null) {
-					int x2 = x & 512 - 1;
-					int y2 = y & 512 - 1;
-					int start_h = (heights[x1][y1] * (512 - x2) + heights[x1 + 1][y1]
-							* x2) >> 9;
-					int end_h = (heights[x1][1 + y1] * (512 - x2) + heights[x1 + 1][y1 + 1]
-							* x2) >> 9;
-					return start_h * (512 - y2) + end_h * y2 >> 9;
-				}
-			}
-		}
-
-		return 0;
+		return tiles.tileHeight(methods.client, x, y);
 	}
 
 	/**
@@ -450,37 +608,155 @@ public class Calculations extends MethodProvider {
 	 *         <code>new Point(-1, -1)</code>.
 	 */
 	public Point worldToScreen(int x, int y, int z) {
-		// perspective projection: hooked viewport values are calculated in
-		// client based on camera state
-		// (so no need to project using camera values and sin/cos)
-		// old developers named these fields very poorly
-		float _z = (renderData.zOff + ((int) (renderData.zX * x + renderData.zY
-				* z + renderData.zZ * y)));
-
-		if ((_z >= render.zNear) && (_z <= render.zFar)) {
-			int _x = (int) (render.xMultiplier
-					* ((int) renderData.xOff + ((int) (renderData.xX * x
-					+ renderData.xY * z + renderData.xZ * y))) / _z);
-			int _y = (int) (render.yMultiplier
-					* ((int) renderData.yOff + ((int) (renderData.yX * x
-					+ renderData.yY * z + renderData.yZ * y))) / _z);
-
-			if ((_x >= render.absoluteX1) && (_x <= render.absoluteX2)
-					&& (_y >= render.absoluteY1) && (_y <= render.absoluteY2)) {
-				if (methods.game.isFixed()) {
-					return new Point((int) (_x - render.absoluteX1) + 4,
-							(int) (_y - render.absoluteY1) + 4);
-				} else {
-					int sx = (int) (_x - render.absoluteX1), sy = (int) (_y - render.absoluteY1);
-					return new Point(sx, sy);
-				}
-			}
-		}
-		return new Point(-1, -1);
+		return viewport.worldToScreen(x, y, z);
+	}
+
+	/**
+	 * Finds the screen location of a given 3D point in the game world,
+	 * without allocating a <tt>Point</tt>.
+	 *
+	 * @param x     x value on the game plane.
+	 * @param y     y value on the game plane.
+	 * @param z     z value on the game plane.
+	 * @param point Receives the x and y of the screen location; otherwise -1
+	 *              and -1.
+	 * @return <tt>true</tt> if the location is on screen; otherwise
+	 *         <tt>false</tt>.
+	 * @see #worldToScreen(int, int, int)
+	 */
+	public boolean worldToScreen(int x, int y, int z, int[] point) {
+		return unpack(viewport.worldToScreenPacked(x, y, z), point);
+	}
+
+	/**
+	 * Finds the screen location of a given 3D point in the game world,
+	 * reusing the given <tt>Point</tt>.
+	 *
+	 * @param x     x value on the game plane.
+	 * @param y     y value on the game plane.
+	 * @param z     z value on the game plane.
+	 * @param point Set to the screen location; otherwise <tt>(-1, -1)</tt>.
+	 * @return <tt>true</tt> if the location is on screen; otherwise
+	 *         <tt>false</tt>.
+	 * @see #worldToScreen(int, int, int)
+	 */
+	public boolean worldToScreen(int x, int y, int z, Point point) {
+		return unpack(viewport.worldToScreenPacked(x, y, z), point);
+	}
+
+	/**
+	 * Returns the packed screen location of a given 3D point in the game
+	 * world.
+	 *
+	 * @param x x value on the game plane.
+	 * @param y y value on the game plane.
+	 * @param z z value on the game plane.
+	 * @return The packed screen location; otherwise {@link #OFF_SCREEN}.
+	 * @see #worldToScreen(int, int, int)
+	 */
+	public long worldToScreenPacked(int x, int y, int z) {
+		return viewport.worldToScreenPacked(x, y, z);
+	}
+
+	/**
+	 * Projects a batch of points in the game world onto the screen, all
+	 * through the same viewport. Point <tt>i</tt> is at
+	 * <tt>(x + xs[i], y + ys[i], z + zs[i])</tt>.
+	 *
+	 * @param x       x offset of every point on the game plane.
+	 * @param y       y offset of every point on the game plane.
+	 * @param z       z offset of every point on the game plane.
+	 * @param xs      x values of the points.
+	 * @param ys      y values of the points.
+	 * @param zs      z values of the points.
+	 * @param count   The number of points.
+	 * @param screenX Receives the screen x of each point; or -1 if the point
+	 *                is not on screen.
+	 * @param screenY Receives the screen y of each point; or -1 if the point
+	 *                is not on screen.
+	 * @return The number of points on screen.
+	 * @see #worldToScreen(int, int, int)
+	 */
+	public int worldToScreen(final int x, final int y, final int z,
+	                         final int[] xs, final int[] ys, final int[] zs, final int count,
+	                         final int[] screenX, final int[] screenY) {
+		return viewport.worldToScreen(x, y, z, xs, ys, zs, count, screenX, screenY);
+	}
+
+	/**
+	 * Gets the viewport that points are currently projected through. The
+	 * viewport never changes; a new one is published whenever the camera or
+	 * game screen changes.
+	 *
+	 * @return The current viewport.
+	 */
+	public Viewport getViewport() {
+		return viewport;
+	}
+
+	/**
+	 * Packs a screen location into a long.
+	 *
+	 * @param x The x of the location.
+	 * @param y The y of the location.
+	 * @return The packed location; {@link #OFF_SCREEN} for <tt>(-1, -1)</tt>.
+	 */
+	public static long pack(int x, int y) {
+		return (long) x << 32 | (y & 0xffffffffL);
+	}
+
+	/**
+	 * Gets the x of a packed screen location.
+	 *
+	 * @param packed The packed location.
+	 * @return The x; or -1 for {@link #OFF_SCREEN}.
+	 */
+	public static int unpackX(long packed) {
+		return (int) (packed >> 32);
+	}
+
+	/**
+	 * Gets the y of a packed screen location.
+	 *
+	 * @param packed The packed location.
+	 * @return The y; or -1 for {@link #OFF_SCREEN}.
+	 */
+	public static int unpackY(long packed) {
+		return (int) packed;
 	}
 
 	// ---- Internal ----
 
+	private static Point toPoint(long packed) {
+		return new Point(unpackX(packed), unpackY(packed));
+	}
+
+	private static boolean unpack(long packed, int[] point) {
+		point[0] = unpackX(packed);
+		point[1] = unpackY(packed);
+		return packed != OFF_SCREEN;
+	}
+
+	private static boolean unpack(long packed, Point point) {
+		point.x = unpackX(packed);
+		point.y = unpackY(packed);
+		return packed != OFF_SCREEN;
+	}
+
+	/**
+	 * Gets the exclusive bounds of the game screen, matching
+	 * {@link #pointOnScreen(Point)}.
+	 *
+	 * @return The minimum x, minimum y, maximum x and maximum y.
+	 */
+	private int[] getScreenBounds() {
+		if (methods.game.isFixed()) {
+			return new int[]{4, 4, methods.game.getWidth() - 253, methods.game.getHeight() - 169};
+		} else {
+			return new int[]{0, 0, methods.game.getWidth() - 260, methods.game.getHeight() - 149};
+		}
+	}
+
 	/**
 	 * Updates the rendering data. For internal use only.
 	 *
@@ -492,176 +768,26 @@ public class Calculations extends MethodProvider {
 		if ((r == null) || (rd == null)) {
 			return;
 		}
-		render.absoluteX1 = r.getAbsoluteX1();
-		render.absoluteX2 = r.getAbsoluteX2();
-		render.absoluteY1 = r.getAbsoluteY1();
-		render.absoluteY2 = r.getAbsoluteY2();
-
-		render.xMultiplier = r.getXMultiplier();
-		render.yMultiplier = r.getYMultiplier();
-
-		render.zNear = r.getZNear();
-		render.zFar = r.getZFar();
-
-		renderData.xOff = rd.getXOff();
-		renderData.xX = rd.getXX();
-		renderData.xY = rd.getXY();
-		renderData.xZ = rd.getXZ();
-
-		renderData.yOff = rd.getYOff();
-		renderData.yX = rd.getYX();
-		renderData.yY = rd.getYY();
-		renderData.yZ = rd.getYZ();
-
-		renderData.zOff = rd.getZOff();
-		renderData.zX = rd.getZX();
-		renderData.zY = rd.getZY();
-		renderData.zZ = rd.getZZ();
+		final boolean fixed = methods.game.isFixed();
+		final Viewport current = viewport;
+		if (!current.matches(r, rd, fixed)) {
+			viewport = new Viewport(r, rd, fixed, current.getVersion() + 1);
+		}
 	}
 
 	/**
-	 * @param startX   the startX (0 < startX < 104)
-	 * @param startY   the startY (0 < startY < 104)
-	 * @param destX    the destX (0 < destX < 104)
-	 * @param destY    the destY (0 < destY < 104)
+	 * @param start    the start tile.
+	 * @param dest     the destination tile.
 	 * @param isObject if it's an object, it will find path which touches it.
 	 * @return The distance of the shortest path to the destination; or -1 if no
 	 *         valid path to the destination was found.
 	 */
-	private int dijkstraDist(final int startX, final int startY,
-	                         final int destX, final int destY, final boolean isObject) {
-		final int[][] prev = new int[104][104];
-		final int[][] dist = new int[104][104];
-		final int[] path_x = new int[4000];
-		final int[] path_y = new int[4000];
-
-		for (int xx = 0; xx < 104; xx++) {
-			for (int yy = 0; yy < 104; yy++) {
-				prev[xx][yy] = 0;
-				dist[xx][yy] = 99999999;
-			}
-		}
-
-		int curr_x = startX;
-		int curr_y = startY;
-		prev[startX][startY] = 99;
-		dist[startX][startY] = 0;
-		int path_ptr = 0;
-		int step_ptr = 0;
-		path_x[path_ptr] = startX;
-		path_y[path_ptr++] = startY;
+	private int dijkstraDist(final RSTile start, final RSTile dest, final boolean isObject) {
 		final int blocks[][] = methods.client.getRSGroundDataArray()[methods.game
 				.getPlane()].getBlocks();
-		final int pathLength = path_x.length;
-		boolean foundPath = false;
-		while (step_ptr != path_ptr) {
-			curr_x = path_x[step_ptr];
-			curr_y = path_y[step_ptr];
-
-			if (isObject) {
-				if (((curr_x == destX) && (curr_y == destY + 1))
-						|| ((curr_x == destX) && (curr_y == destY - 1))
-						|| ((curr_x == destX + 1) && (curr_y == destY))
-						|| ((curr_x == destX - 1) && (curr_y == destY))) {
-					foundPath = true;
-					break;
-				}
-				/*
-				 * ^This can be simplified to: if (Math.abs(curr_x - destX) +
-				 * Math.abs(curr_y - destY) == 1) { foundPath = true; break; }
-				 */
-			} else if ((curr_x == destX) && (curr_y == destY)) {
-				foundPath = true;
-			}
-
-			step_ptr = (step_ptr + 1) % pathLength;
-			final int cost = dist[curr_x][curr_y] + 1;
-
-			// south
-			if ((curr_y > 0) && (prev[curr_x][curr_y - 1] == 0)
-					&& ((blocks[curr_x + 1][curr_y] & 0x1280102) == 0)) {
-				path_x[path_ptr] = curr_x;
-				path_y[path_ptr] = curr_y - 1;
-				path_ptr = (path_ptr + 1) % pathLength;
-				prev[curr_x][curr_y - 1] = 1;
-				dist[curr_x][curr_y - 1] = cost;
-			}
-			// west
-			if ((curr_x > 0) && (prev[curr_x - 1][curr_y] == 0)
-					&& ((blocks[curr_x][curr_y + 1] & 0x1280108) == 0)) {
-				path_x[path_ptr] = curr_x - 1;
-				path_y[path_ptr] = curr_y;
-				path_ptr = (path_ptr + 1) % pathLength;
-				prev[curr_x - 1][curr_y] = 2;
-				dist[curr_x - 1][curr_y] = cost;
-			}
-			// north
-			if ((curr_y < 104 - 1) && (prev[curr_x][curr_y + 1] == 0)
-					&& ((blocks[curr_x + 1][curr_y + 2] & 0x1280120) == 0)) {
-				path_x[path_ptr] = curr_x;
-				path_y[path_ptr] = curr_y + 1;
-				path_ptr = (path_ptr + 1) % pathLength;
-				prev[curr_x][curr_y + 1] = 4;
-				dist[curr_x][curr_y + 1] = cost;
-			}
-			// east
-			if ((curr_x < 104 - 1) && (prev[curr_x + 1][curr_y] == 0)
-					&& ((blocks[curr_x + 2][curr_y + 1] & 0x1280180) == 0)) {
-				path_x[path_ptr] = curr_x + 1;
-				path_y[path_ptr] = curr_y;
-				path_ptr = (path_ptr + 1) % pathLength;
-				prev[curr_x + 1][curr_y] = 8;
-				dist[curr_x + 1][curr_y] = cost;
-			}
-			// south west
-			if ((curr_x > 0) && (curr_y > 0)
-					&& (prev[curr_x - 1][curr_y - 1] == 0)
-					&& ((blocks[curr_x][curr_y] & 0x128010e) == 0)
-					&& ((blocks[curr_x][curr_y + 1] & 0x1280108) == 0)
-					&& ((blocks[curr_x + 1][curr_y] & 0x1280102) == 0)) {
-				path_x[path_ptr] = curr_x - 1;
-				path_y[path_ptr] = curr_y - 1;
-				path_ptr = (path_ptr + 1) % pathLength;
-				prev[curr_x - 1][curr_y - 1] = 3;
-				dist[curr_x - 1][curr_y - 1] = cost;
-			}
-			// north west
-			if ((curr_x > 0) && (curr_y < 104 - 1)
-					&& (prev[curr_x - 1][curr_y + 1] == 0)
-					&& ((blocks[curr_x][curr_y + 2] & 0x1280138) == 0)
-					&& ((blocks[curr_x][curr_y + 1] & 0x1280108) == 0)
-					&& ((blocks[curr_x + 1][curr_y + 2] & 0x1280120) == 0)) {
-				path_x[path_ptr] = curr_x - 1;
-				path_y[path_ptr] = curr_y + 1;
-				path_ptr = (path_ptr + 1) % pathLength;
-				prev[curr_x - 1][curr_y + 1] = 6;
-				dist[curr_x - 1][curr_y + 1] = cost;
-			}
-			// south east
-			if ((curr_x < 104 - 1) && (curr_y > 0)
-					&& (prev[curr_x + 1][curr_y - 1] == 0)
-					&& ((blocks[curr_x + 2][curr_y] & 0x1280183) == 0)
-					&& ((blocks[curr_x + 2][curr_y + 1] & 0x1280180) == 0)
-					&& ((blocks[curr_x + 1][curr_y] & 0x1280102) == 0)) {
-				path_x[path_ptr] = curr_x + 1;
-				path_y[path_ptr] = curr_y - 1;
-				path_ptr = (path_ptr + 1) % pathLength;
-				prev[curr_x + 1][curr_y - 1] = 9;
-				dist[curr_x + 1][curr_y - 1] = cost;
-			}
-			// north east
-			if ((curr_x < 104 - 1) && (curr_y < 104 - 1)
-					&& (prev[curr_x + 1][curr_y + 1] == 0)
-					&& ((blocks[curr_x + 2][curr_y + 2] & 0x12801e0) == 0)
-					&& ((blocks[curr_x + 2][curr_y + 1] & 0x1280180) == 0)
-					&& ((blocks[curr_x + 1][curr_y + 2] & 0x1280120) == 0)) {
-				path_x[path_ptr] = curr_x + 1;
-				path_y[path_ptr] = curr_y + 1;
-				path_ptr = (path_ptr + 1) % pathLength;
-				prev[curr_x + 1][curr_y + 1] = 12;
-				dist[curr_x + 1][curr_y + 1] = cost;
-			}
+		synchronized (workspace) {
+			return workspace.search(blocks, methods.client.getBaseX(),
+					methods.client.getBaseY(), start, dest, isObject);
 		}
-		return foundPath ? dist[curr_x][curr_y] : -1;
 	}
 }
@@ -0,0 +1,188 @@
+package org.rsbot.script.methods;
+
+import org.rsbot.client.HardReference;
+import org.rsbot.client.Node;
+import org.rsbot.client.SoftReference;
+import org.rsbot.script.wrappers.RSItemDef;
+import org.rsbot.script.wrappers.RSNPCDef;
+import org.rsbot.script.wrappers.RSObjectDef;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches snapshots of object, item and NPC definitions by ID, so that the
+ * client's definition tables are only searched the first time an ID is
+ * seen. Names and actions in the snapshots are interned.
+ */
+public class Definitions extends MethodProvider {
+
+	/**
+	 * The number of definitions of each kind kept.
+	 */
+	public static final int CAPACITY = 4096;
+
+	private final Cache<RSObjectDef> objects = new Cache<RSObjectDef>(CAPACITY);
+	private final Cache<RSItemDef> items = new Cache<RSItemDef>(CAPACITY);
+	private final Cache<RSNPCDef> npcs = new Cache<RSNPCDef>(CAPACITY);
+
+	Definitions(final MethodContext ctx) {
+		super(ctx);
+	}
+
+	/**
+	 * Gets the definition of an object.
+	 *
+	 * @param id The object ID.
+	 * @return The definition; or <tt>null</tt> if it is not loaded.
+	 */
+	public RSObjectDef getObject(final int id) {
+		RSObjectDef def = objects.get(id);
+		if (def == null) {
+			Object ref = lookup(methods.nodes.lookup(methods.client.getRSObjectDefLoader(), id));
+			if (ref instanceof org.rsbot.client.RSObjectDef) {
+				def = new RSObjectDef(id, (org.rsbot.client.RSObjectDef) ref);
+				objects.put(id, def);
+			}
+		}
+		return def;
+	}
+
+	/**
+	 * Gets the definition of an item.
+	 *
+	 * @param id The item ID.
+	 * @return The definition; or <tt>null</tt> if it is not loaded.
+	 */
+	public RSItemDef getItem(final int id) {
+		RSItemDef def = items.get(id);
+		if (def == null) {
+			Object ref = lookup(methods.nodes.lookup(methods.client.getRSItemDefLoader(), id));
+			if (ref instanceof org.rsbot.client.RSItemDef) {
+				def = new RSItemDef((org.rsbot.client.RSItemDef) ref);
+				items.put(id, def);
+			}
+		}
+		return def;
+	}
+
+	/**
+	 * Gets the snapshot of an NPC definition.
+	 *
+	 * @param def The client's NPC definition.
+	 * @return The snapshot; or <tt>null</tt> if <tt>def</tt> is null.
+	 */
+	public RSNPCDef getNPC(final org.rsbot.client.RSNPCDef def) {
+		if (def == null) {
+			return null;
+		}
+		final int id = def.getType();
+		RSNPCDef snapshot = npcs.get(id);
+		if (snapshot == null) {
+			snapshot = new RSNPCDef(def);
+			npcs.put(id, snapshot);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Discards every cached definition.
+	 */
+	public void clear() {
+		objects.clear();
+		items.clear();
+		npcs.clear();
+	}
+
+	public long getHitCount() {
+		return objects.hits + items.hits + npcs.hits;
+	}
+
+	public long getMissCount() {
+		return objects.misses + items.misses + npcs.misses;
+	}
+
+	/**
+	 * Gets the fraction of lookups answered from the cache.
+	 *
+	 * @return The hit rate between 0 and 1.
+	 */
+	public double getHitRate() {
+		final long hits = getHitCount(), total = hits + getMissCount();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * Interns a string, allowing for <tt>null</tt>.
+	 *
+	 * @param s The string.
+	 * @return The canonical string; or <tt>null</tt>.
+	 */
+	public static String intern(final String s) {
+		return s == null ? null : s.intern();
+	}
+
+	/**
+	 * Copies an array of strings, interning each one.
+	 *
+	 * @param s The strings.
+	 * @return The interned copy; or <tt>null</tt>.
+	 */
+	public static String[] intern(final String[] s) {
+		if (s == null) {
+			return null;
+		}
+		final String[] interned = new String[s.length];
+		for (int i = 0; i < s.length; i++) {
+			interned[i] = intern(s[i]);
+		}
+		return interned;
+	}
+
+	private static Object lookup(final Node ref) {
+		if (ref instanceof HardReference) {
+			return ((HardReference) ref).get();
+		} else if (ref instanceof SoftReference) {
+			return ((SoftReference) ref).getReference().get();
+		}
+		return null;
+	}
+
+	/**
+	 * A least recently used map of definitions by ID.
+	 */
+	private static class Cache<T> {
+
+		private final Map<Integer, T> map;
+		private volatile long hits, misses;
+
+		Cache(final int capacity) {
+			map = new LinkedHashMap<Integer, T>(64, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+					return size() > capacity;
+				}
+			};
+		}
+
+		synchronized T get(final int id) {
+			final T value = map.get(id);
+			if (value == null) {
+				++misses;
+			} else {
+				++hits;
+			}
+			return value;
+		}
+
+		synchronized void put(final int id, final T value) {
+			map.put(id, value);
+		}
+
+		synchronized void clear() {
+			map.clear();
+		}
+
+	}
+
+}
@@ -102,6 +102,8 @@ public class Game extends MethodProvider {
 			"Emotes",
 			"Music Player", "Notes", "Exit"};
 
+	private volatile WorldSnapshot snapshot;
+
 	Game(final MethodContext ctx) {
 		super(ctx);
 	}
@@ -630,6 +632,22 @@ public class Game extends MethodProvider {
 		return new RSTile(methods.client.getBaseX(), methods.client.getBaseY());
 	}
 
+	/**
+	 * Gets a snapshot of the loaded world for the current game tick. The
+	 * same snapshot is returned until a tick passes or the region or plane
+	 * changes.
+	 *
+	 * @return The world snapshot.
+	 */
+	public WorldSnapshot getSnapshot() {
+		WorldSnapshot snapshot = this.snapshot;
+		if (snapshot == null || !snapshot.isValid()) {
+			snapshot = new WorldSnapshot(methods);
+			this.snapshot = snapshot;
+		}
+		return snapshot;
+	}
+
 	/**
 	 * Gets the canvas height.
 	 *
@@ -3,6 +3,7 @@ package org.rsbot.script.methods;
 import org.rsbot.client.HashTable;
 import org.rsbot.script.internal.wrappers.Deque;
 import org.rsbot.script.util.Filter;
+import org.rsbot.script.wrappers.DistanceField;
 import org.rsbot.script.wrappers.RSGroundItem;
 import org.rsbot.script.wrappers.RSItem;
 import org.rsbot.script.wrappers.RSTile;
@@ -64,19 +65,16 @@ public class GroundItems extends MethodProvider {
 	 * @return <tt>RSGroundItem</tt> array containing all of the items in range.
 	 */
 	public RSGroundItem[] getAll(int range, Filter<RSGroundItem> filter) {
+		WorldSnapshot.Items items = methods.game.getSnapshot().getGroundItems();
 		ArrayList<RSGroundItem> temp = new ArrayList<RSGroundItem>();
-		int pX = methods.players.getMyPlayer().getLocation().getX();
-		int pY = methods.players.getMyPlayer().getLocation().getY();
-		int minX = pX - range, minY = pY - range;
-		int maxX = pX + range, maxY = pY + range;
-		for (int x = minX; x < maxX; x++) {
-			for (int y = minY; y < maxY; y++) {
-				RSGroundItem[] items = getAllAt(x, y);
-				for (RSGroundItem item : items) {
-					if (filter.accept(item)) {
-						temp.add(item);
-					}
-				}
+		RSTile pos = items.getMyLocation();
+		int minX = pos.getX() - range, minY = pos.getY() - range;
+		int maxX = pos.getX() + range, maxY = pos.getY() + range;
+		for (int i = 0; i < items.size(); i++) {
+			int x = items.getX(i), y = items.getY(i);
+			if (x >= minX && x < maxX && y >= minY && y < maxY
+					&& filter.accept(items.get(i))) {
+				temp.add(items.get(i));
 			}
 		}
 		return temp.toArray(new RSGroundItem[temp.size()]);
@@ -90,22 +88,19 @@ public class GroundItems extends MethodProvider {
 	 *         null.
 	 */
 	public RSGroundItem getNearest(Filter<RSGroundItem> filter) {
+		WorldSnapshot.Items items = methods.game.getSnapshot().getGroundItems();
+		RSTile pos = items.getMyLocation();
 		int dist = 9999999;
-		int pX = methods.players.getMyPlayer().getLocation().getX();
-		int pY = methods.players.getMyPlayer().getLocation().getY();
-		int minX = pX - 52, minY = pY - 52;
-		int maxX = pX + 52, maxY = pY + 52;
 		RSGroundItem itm = null;
-		for (int x = minX; x <= maxX; x++) {
-			for (int y = minY; y <= maxY; y++) {
-				RSGroundItem[] items = getAllAt(x, y);
-				for (RSGroundItem item : items) {
-					if (filter.accept(item)
-							&& methods.calc.distanceTo(item.getLocation()) < dist) {
-						dist = methods.calc.distanceTo(item.getLocation());
-						itm = item;
-					}
-				}
+		for (int i = 0; i < items.size(); i++) {
+			int x = items.getX(i), y = items.getY(i);
+			if (Math.abs(x - pos.getX()) > 52 || Math.abs(y - pos.getY()) > 52) {
+				continue;
+			}
+			int d = WorldSnapshot.distance(x, y, pos.getX(), pos.getY());
+			if (d < dist && filter.accept(items.get(i))) {
+				dist = d;
+				itm = items.get(i);
 			}
 		}
 		return itm;
@@ -121,7 +116,68 @@ public class GroundItems extends MethodProvider {
 	 *         were found.
 	 */
 	public RSGroundItem getNearest(final int... ids) {
-		return getNearest(new Filter<RSGroundItem>() {
+		WorldSnapshot.Items items = methods.game.getSnapshot().getGroundItems();
+		RSTile pos = items.getMyLocation();
+		int dist = 9999999;
+		RSGroundItem itm = null;
+		for (int i = 0; i < items.size(); i++) {
+			for (int id : ids) {
+				if (items.getID(i) == id) {
+					int x = items.getX(i), y = items.getY(i);
+					int d = WorldSnapshot.distance(x, y, pos.getX(), pos.getY());
+					if (Math.abs(x - pos.getX()) <= 52 && Math.abs(y - pos.getY()) <= 52 && d < dist) {
+						dist = d;
+						itm = items.get(i);
+					}
+					break;
+				}
+			}
+		}
+		return itm;
+	}
+
+	/**
+	 * Returns the ground item accepted by the provided Filter that is the
+	 * shortest walk away. Items on a blocked tile, such as a table, count as
+	 * reachable from any tile next to them.
+	 *
+	 * @param filter Filters out unwanted matches.
+	 * @return The nearest reachable item that is accepted by the provided
+	 *         Filter; or null.
+	 * @see Calculations#distanceField()
+	 */
+	public RSGroundItem getNearestReachable(Filter<RSGroundItem> filter) {
+		DistanceField field = methods.calc.distanceField();
+		WorldSnapshot.Items items = methods.game.getSnapshot().getGroundItems();
+		int dist = -1;
+		RSGroundItem itm = null;
+		for (int i = 0; i < items.size(); i++) {
+			RSGroundItem item = items.get(i);
+			if (filter.accept(item)) {
+				int d = field.distanceTo(item.getLocation(), false);
+				if (d == -1) {
+					d = field.distanceTo(item.getLocation(), true);
+				}
+				if (d != -1 && (itm == null || d < dist)) {
+					dist = d;
+					itm = item;
+				}
+			}
+		}
+		return itm;
+	}
+
+	/**
+	 * Returns the reachable item on the ground with an ID that matches any of
+	 * the IDs provided that is the shortest walk away.
+	 *
+	 * @param ids The IDs to look for.
+	 * @return The nearest reachable item with an ID that matches any in the
+	 *         array of IDs provided; or null if no matching ground items were
+	 *         found.
+	 */
+	public RSGroundItem getNearestReachable(final int... ids) {
+		return getNearestReachable(new Filter<RSGroundItem>() {
 			public boolean accept(RSGroundItem item) {
 				int iid = item.getItem().getID();
 				for (int id : ids) {
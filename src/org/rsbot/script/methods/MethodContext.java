@@ -106,6 +106,11 @@ public class MethodContext {
 	 */
 	public final Tiles tiles = new Tiles(this);
 
+	/**
+	 * The singleton of Definitions
+	 */
+	public final Definitions definitions = new Definitions(this);
+
 	/**
 	 * The singleton of Objects
 	 */
@@ -1,15 +1,19 @@
 package org.rsbot.script.methods;
 
-import org.rsbot.client.Node;
-import org.rsbot.client.RSNPCNode;
 import org.rsbot.script.util.Filter;
+import org.rsbot.script.wrappers.DistanceField;
 import org.rsbot.script.wrappers.RSNPC;
+import org.rsbot.script.wrappers.RSNPCDef;
+import org.rsbot.script.wrappers.RSTile;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Provides access to non-player characters.
+ * <p/>
+ * Filters are given a cursor that is moved from NPC to NPC, so they should
+ * not keep the NPC they are given; the methods return stable wrappers for
+ * the NPCs that are accepted.
  */
 public class NPCs extends MethodProvider {
 
@@ -44,19 +48,15 @@ public class NPCs extends MethodProvider {
 	 * @return An array of the loaded RSNPCs.
 	 */
 	public RSNPC[] getAll(final Filter<RSNPC> filter) {
-		int[] indices = methods.client.getRSNPCIndexArray();
-		Set<RSNPC> npcs = new HashSet<RSNPC>();
-		for (int index : indices) {
-			Node node = methods.nodes
-					.lookup(methods.client.getRSNPCNC(), index);
-			if (node instanceof RSNPCNode) {
-				RSNPC npc = new RSNPC(methods, ((RSNPCNode) node).getRSNPC());
-				if (filter.accept(npc)) {
-					npcs.add(npc);
-				}
+		WorldSnapshot.Characters<RSNPC> npcs = methods.game.getSnapshot().getNPCs();
+		List<RSNPC> accepted = new ArrayList<RSNPC>(npcs.size());
+		RSNPC cursor = npcs.cursor();
+		for (int i = 0; i < npcs.size(); i++) {
+			if (filter.accept(npcs.move(cursor, i))) {
+				accepted.add(npcs.get(i));
 			}
 		}
-		return npcs.toArray(new RSNPC[npcs.size()]);
+		return accepted.toArray(new RSNPC[accepted.size()]);
 	}
 
 	/**
@@ -69,25 +69,19 @@ public class NPCs extends MethodProvider {
 	 *         current region.
 	 */
 	public RSNPC getNearest(final Filter<RSNPC> filter) {
+		WorldSnapshot.Characters<RSNPC> npcs = methods.game.getSnapshot().getNPCs();
+		RSTile pos = npcs.getMyLocation();
 		int min = 20;
-		RSNPC closest = null;
-		int[] indices = methods.client.getRSNPCIndexArray();
-
-		for (int index : indices) {
-			Node node = methods.nodes
-					.lookup(methods.client.getRSNPCNC(), index);
-			if (node instanceof RSNPCNode) {
-				RSNPC npc = new RSNPC(methods, ((RSNPCNode) node).getRSNPC());
-				if (filter.accept(npc)) {
-					int distance = methods.calc.distanceTo(npc);
-					if (distance < min) {
-						min = distance;
-						closest = npc;
-					}
-				}
+		int closest = -1;
+		RSNPC cursor = npcs.cursor();
+		for (int i = 0; i < npcs.size(); i++) {
+			int distance = WorldSnapshot.distance(npcs.getX(i), npcs.getY(i), pos.getX(), pos.getY());
+			if (distance < min && filter.accept(npcs.move(cursor, i))) {
+				min = distance;
+				closest = i;
 			}
 		}
-		return closest;
+		return closest == -1 ? null : npcs.get(closest);
 	}
 
 	/**
@@ -100,7 +94,64 @@ public class NPCs extends MethodProvider {
 	 *         current region.
 	 */
 	public RSNPC getNearest(final int... ids) {
-		return getNearest(new Filter<RSNPC>() {
+		WorldSnapshot.Characters<RSNPC> npcs = methods.game.getSnapshot().getNPCs();
+		RSTile pos = npcs.getMyLocation();
+		int min = 20;
+		int closest = -1;
+		for (int i = 0; i < npcs.size(); i++) {
+			for (int id : ids) {
+				if (npcs.getID(i) == id) {
+					int distance = WorldSnapshot.distance(npcs.getX(i), npcs.getY(i), pos.getX(), pos.getY());
+					if (distance < min) {
+						min = distance;
+						closest = i;
+					}
+					break;
+				}
+			}
+		}
+		return closest == -1 ? null : npcs.get(closest);
+	}
+
+	/**
+	 * Returns the RSNPC accepted by the provided Filter that is the shortest
+	 * walk away. NPCs that cannot be reached are ignored.
+	 *
+	 * @param filter Filters out unwanted matches.
+	 * @return An RSNPC object representing the nearest reachable RSNPC that
+	 *         was accepted by the filter; or null if there are none in the
+	 *         current region.
+	 * @see Calculations#distanceField()
+	 */
+	public RSNPC getNearestReachable(final Filter<RSNPC> filter) {
+		DistanceField field = methods.calc.distanceField();
+		WorldSnapshot.Characters<RSNPC> npcs = methods.game.getSnapshot().getNPCs();
+		int min = -1;
+		int closest = -1;
+		RSNPC cursor = npcs.cursor();
+		for (int i = 0; i < npcs.size(); i++) {
+			if (filter.accept(npcs.move(cursor, i))) {
+				int distance = field.distanceTo(new RSTile(npcs.getX(i), npcs.getY(i)), false);
+				if (distance != -1 && (closest == -1 || distance < min)) {
+					min = distance;
+					closest = i;
+				}
+			}
+		}
+		return closest == -1 ? null : npcs.get(closest);
+	}
+
+	/**
+	 * Returns the reachable RSNPC with one of the provided ID(s) that is the
+	 * shortest walk away. Can return null.
+	 *
+	 * @param ids Allowed NPC IDs.
+	 * @return An RSNPC object representing the nearest reachable RSNPC with
+	 *         one of the provided IDs; or null if there are none in the
+	 *         current region.
+	 */
+	public RSNPC getNearestReachable(final int... ids) {
+		return getNearestReachable(new Filter<RSNPC>() {
 			@Override
 			public boolean accept(RSNPC npc) {
 				for (int id : ids) {
@@ -123,15 +174,28 @@ public class NPCs extends MethodProvider {
 	 *         current region.
 	 */
 	public RSNPC getNearest(final String... names) {
+		final String[] interned = Definitions.intern(names);
 		return getNearest(new Filter<RSNPC>() {
+			private final Map<Integer, Boolean> matches = new HashMap<Integer, Boolean>();
+
 			@Override
 			public boolean accept(RSNPC npc) {
-				for (String name : names) {
-					if (npc.getName().equals(name)) {
-						return true;
+				RSNPCDef def = npc.getDef();
+				if (def == null) {
+					return false;
+				}
+				Boolean match = matches.get(def.getID());
+				if (match == null) {
+					match = false;
+					for (String name : interned) {
+						if (def.getName() == name) {
+							match = true;
+							break;
+						}
 					}
+					matches.put(def.getID(), match);
 				}
-				return false;
+				return match;
 			}
 		});
 	}
@@ -0,0 +1,256 @@
+package org.rsbot.script.methods;
+
+import org.rsbot.client.RSAnimableNode;
+import org.rsbot.client.RSGround;
+import org.rsbot.script.wrappers.RSObject;
+import org.rsbot.script.wrappers.RSObjectDef;
+import org.rsbot.script.wrappers.RSTile;
+
+import java.util.*;
+
+/**
+ * A snapshot of the objects in the loaded region, taken at most once per
+ * game tick as part of a {@link WorldSnapshot}. Each client object is
+ * wrapped once. Objects are listed per
+ * tile for tile and range queries and bucketed by ID (and by name, on
+ * demand) for nearest-object queries.
+ */
+class ObjectIndex {
+
+	static final int SIZE = 104;
+
+	/**
+	 * The types of the fixed object slots of a tile, after its
+	 * interactables.
+	 */
+	private static final int[] SLOT_TYPES = {Objects.TYPE_FLOOR_DECORATION,
+			Objects.TYPE_BOUNDARY, Objects.TYPE_BOUNDARY,
+			Objects.TYPE_WALL_DECORATION, Objects.TYPE_WALL_DECORATION};
+
+	private final int baseX, baseY, plane;
+
+	/**
+	 * Distinct objects in tile order, and their locations.
+	 */
+	final RSObject[] objects;
+	final int[] locX, locY;
+
+	/**
+	 * Per tile entries: the object index and type flag of each object on
+	 * tile <tt>x * SIZE + y</tt> lie between <tt>tileStart[t]</tt> and
+	 * <tt>tileStart[t + 1]</tt>.
+	 */
+	private final int[] tileStart = new int[SIZE * SIZE + 1];
+	private final int[] tileObjects;
+	private final int[] tileTypes;
+
+	private final Map<Integer, int[]> byId;
+	private final Definitions definitions;
+	private Map<String, int[]> byName;
+
+	ObjectIndex(final MethodContext ctx) {
+		final org.rsbot.client.Client client = ctx.client;
+		definitions = ctx.definitions;
+		baseX = client.getBaseX();
+		baseY = client.getBaseY();
+		plane = client.getPlane();
+
+		final Map<org.rsbot.client.RSObject, Integer> ids = new IdentityHashMap<org.rsbot.client.RSObject, Integer>();
+		final List<RSObject> objects = new ArrayList<RSObject>();
+		int[] entries = new int[1024];
+		int count = 0;
+		final RSGround[][][] ground = client.getRSGroundArray();
+		final RSGround[][] tiles = ground == null ? null : ground[plane];
+		final List<org.rsbot.client.RSInteractable> found = new ArrayList<org.rsbot.client.RSInteractable>();
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				tileStart[x * SIZE + y] = count;
+				final RSGround rsGround = tiles == null ? null : tiles[x][y];
+				if (rsGround == null) {
+					continue;
+				}
+				found.clear();
+				for (RSAnimableNode node = rsGround.getRSAnimableList(); node != null; node = node.getNext()) {
+					found.add(node.getRSAnimable());
+				}
+				final int interactables = found.size();
+				found.add(rsGround.getFloorDecoration());
+				found.add(rsGround.getBoundary1());
+				found.add(rsGround.getBoundary2());
+				found.add(rsGround.getWallDecoration1());
+				found.add(rsGround.getWallDecoration2());
+				for (int i = 0; i < found.size(); i++) {
+					final org.rsbot.client.RSInteractable obj = found.get(i);
+					if (!(obj instanceof org.rsbot.client.RSObject)
+							|| ((org.rsbot.client.RSObject) obj).getID() == -1) {
+						continue;
+					}
+					final org.rsbot.client.RSObject rsObj = (org.rsbot.client.RSObject) obj;
+					final int type = i < interactables ? Objects.TYPE_INTERACTABLE : SLOT_TYPES[i - interactables];
+					Integer index = ids.get(rsObj);
+					if (index == null) {
+						index = objects.size();
+						ids.put(rsObj, index);
+						objects.add(new RSObject(ctx, rsObj, toType(type), plane));
+					}
+					if (count + 2 > entries.length) {
+						entries = Arrays.copyOf(entries, entries.length * 2);
+					}
+					entries[count++] = index;
+					entries[count++] = type;
+				}
+			}
+		}
+		tileStart[SIZE * SIZE] = count;
+		for (int i = 0; i < tileStart.length; i++) {
+			tileStart[i] >>= 1;
+		}
+		tileObjects = new int[count >> 1];
+		tileTypes = new int[count >> 1];
+		for (int i = 0; i < tileObjects.length; i++) {
+			tileObjects[i] = entries[i << 1];
+			tileTypes[i] = entries[(i << 1) + 1];
+		}
+
+		this.objects = objects.toArray(new RSObject[objects.size()]);
+		locX = new int[this.objects.length];
+		locY = new int[this.objects.length];
+		final Map<Integer, List<Integer>> byId = new HashMap<Integer, List<Integer>>();
+		for (int i = 0; i < this.objects.length; i++) {
+			final RSObject o = this.objects[i];
+			final RSTile loc = o.getLocation();
+			locX[i] = loc.getX();
+			locY[i] = loc.getY();
+			List<Integer> bucket = byId.get(o.getID());
+			if (bucket == null) {
+				bucket = new ArrayList<Integer>(4);
+				byId.put(o.getID(), bucket);
+			}
+			bucket.add(i);
+		}
+		this.byId = toBuckets(byId);
+	}
+
+	/**
+	 * Gets the indices of the objects with the given ID, in tile order.
+	 */
+	int[] withId(final int id) {
+		final int[] bucket = byId.get(id);
+		return bucket == null ? new int[0] : bucket;
+	}
+
+	/**
+	 * Gets the indices of the objects with the given name, in tile order.
+	 * Names are looked up once per object ID.
+	 */
+	synchronized int[] withName(final String name) {
+		if (byName == null) {
+			final Map<String, List<Integer>> names = new HashMap<String, List<Integer>>();
+			for (Map.Entry<Integer, int[]> entry : byId.entrySet()) {
+				final RSObjectDef def = definitions.getObject(entry.getKey());
+				final String n = def == null ? null : def.getName();
+				if (n != null) {
+					List<Integer> bucket = names.get(n);
+					if (bucket == null) {
+						bucket = new ArrayList<Integer>();
+						names.put(n, bucket);
+					}
+					for (int i : entry.getValue()) {
+						bucket.add(i);
+					}
+				}
+			}
+			for (List<Integer> bucket : names.values()) {
+				Collections.sort(bucket);
+			}
+			byName = toBuckets(names);
+		}
+		final int[] bucket = byName.get(name);
+		return bucket == null ? new int[0] : bucket;
+	}
+
+	/**
+	 * Gets the objects on a local tile whose type is in the mask, in the
+	 * order interactables, floor decorations, boundaries, wall decorations.
+	 */
+	RSObject[] at(final int x, final int y, final int mask) {
+		if (x < 0 || y < 0 || x >= SIZE || y >= SIZE) {
+			return new RSObject[0];
+		}
+		final int tile = x * SIZE + y;
+		final List<RSObject> found = new ArrayList<RSObject>(tileStart[tile + 1] - tileStart[tile]);
+		for (int i = tileStart[tile]; i < tileStart[tile + 1]; i++) {
+			final RSObject o = objects[tileObjects[i]];
+			if ((tileTypes[i] & mask) != 0 && !found.contains(o)) {
+				found.add(o);
+			}
+		}
+		return found.toArray(new RSObject[found.size()]);
+	}
+
+	/**
+	 * Gets the indices of the objects on any local tile in the given
+	 * inclusive bounds, in tile order.
+	 */
+	int[] in(int minX, int minY, int maxX, int maxY) {
+		minX = Math.max(minX, 0);
+		minY = Math.max(minY, 0);
+		maxX = Math.min(maxX, SIZE - 1);
+		maxY = Math.min(maxY, SIZE - 1);
+		final boolean[] seen = new boolean[objects.length];
+		int[] found = new int[16];
+		int count = 0;
+		for (int x = minX; x <= maxX; x++) {
+			for (int y = minY; y <= maxY; y++) {
+				final int tile = x * SIZE + y;
+				for (int i = tileStart[tile]; i < tileStart[tile + 1]; i++) {
+					final int o = tileObjects[i];
+					if (!seen[o]) {
+						seen[o] = true;
+						if (count == found.length) {
+							found = Arrays.copyOf(found, count * 2);
+						}
+						found[count++] = o;
+					}
+				}
+			}
+		}
+		Arrays.sort(found, 0, count);
+		return Arrays.copyOf(found, count);
+	}
+
+	int getBaseX() {
+		return baseX;
+	}
+
+	int getBaseY() {
+		return baseY;
+	}
+
+	private static <K> Map<K, int[]> toBuckets(final Map<K, List<Integer>> lists) {
+		final Map<K, int[]> buckets = new HashMap<K, int[]>(lists.size() * 2);
+		for (Map.Entry<K, List<Integer>> entry : lists.entrySet()) {
+			final List<Integer> list = entry.getValue();
+			final int[] bucket = new int[list.size()];
+			for (int i = 0; i < bucket.length; i++) {
+				bucket[i] = list.get(i);
+			}
+			buckets.put(entry.getKey(), bucket);
+		}
+		return buckets;
+	}
+
+	private static RSObject.Type toType(final int type) {
+		switch (type) {
+			case Objects.TYPE_INTERACTABLE:
+				return RSObject.Type.INTERACTABLE;
+			case Objects.TYPE_FLOOR_DECORATION:
+				return RSObject.Type.FLOOR_DECORATION;
+			case Objects.TYPE_BOUNDARY:
+				return RSObject.Type.BOUNDARY;
+			default:
+				return RSObject.Type.WALL_DECORATION;
+		}
+	}
+
+}
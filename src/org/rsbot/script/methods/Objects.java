@@ -1,13 +1,12 @@
 package org.rsbot.script.methods;
 
-import org.rsbot.client.RSAnimableNode;
 import org.rsbot.script.util.Filter;
+import org.rsbot.script.wrappers.DistanceField;
 import org.rsbot.script.wrappers.RSObject;
-import org.rsbot.script.wrappers.RSObjectDef;
 import org.rsbot.script.wrappers.RSTile;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Provides access to in-game physical objects.
@@ -50,14 +49,33 @@ public class Objects extends MethodProvider {
 	 *         region.
 	 */
 	public RSObject[] getAll(final Filter<RSObject> filter) {
-		Set<RSObject> objects = new LinkedHashSet<RSObject>();
-		for (int x = 0; x < 104; x++) {
-			for (int y = 0; y < 104; y++) {
-				for (RSObject o : getAtLocal(x, y, -1)) {
-					if (filter.accept(o)) {
-						objects.add(o);
-					}
-				}
+		ObjectIndex index = index();
+		List<RSObject> objects = new ArrayList<RSObject>();
+		for (RSObject o : index.objects) {
+			if (filter.accept(o)) {
+				objects.add(o);
+			}
+		}
+		return objects.toArray(new RSObject[objects.size()]);
+	}
+
+	/**
+	 * Returns all the <tt>RSObject</tt>s within the provided range of the
+	 * player that are accepted by the provided Filter.
+	 *
+	 * @param range  The range (max distance in all directions) in which to check
+	 *               objects for.
+	 * @param filter Filters out unwanted objects.
+	 * @return An <tt>RSObject[]</tt> of all the accepted objects in range.
+	 */
+	public RSObject[] getAll(final int range, final Filter<RSObject> filter) {
+		ObjectIndex index = index();
+		RSTile pos = methods.players.getMyPlayer().getLocation();
+		int x = pos.getX() - index.getBaseX(), y = pos.getY() - index.getBaseY();
+		List<RSObject> objects = new ArrayList<RSObject>();
+		for (int i : index.in(x - range, y - range, x + range, y + range)) {
+			if (filter.accept(index.objects[i])) {
+				objects.add(index.objects[i]);
 			}
 		}
 		return objects.toArray(new RSObject[objects.size()]);
@@ -73,25 +91,17 @@ public class Objects extends MethodProvider {
 	 *         in the current region.
 	 */
 	public RSObject getNearest(final Filter<RSObject> filter) {
+		ObjectIndex index = index();
+		RSTile pos = methods.players.getMyPlayer().getLocation();
 		RSObject cur = null;
 		double dist = -1;
-		for (int x = 0; x < 104; x++) {
-			for (int y = 0; y < 104; y++) {
-				Set<RSObject> objs = getAtLocal(x, y, -1);
-				for (RSObject o : objs) {
-					if (filter.accept(o)) {
-						double distTmp = methods.calc.distanceBetween(
-								methods.players.getMyPlayer().getLocation(),
-								o.getLocation());
-						if (cur == null) {
-							dist = distTmp;
-							cur = o;
-						} else if (distTmp < dist) {
-							cur = o;
-							dist = distTmp;
-						}
-						break;
-					}
+		for (int i = 0; i < index.objects.length; i++) {
+			RSObject o = index.objects[i];
+			if (filter.accept(o)) {
+				double distTmp = distance(index, i, pos);
+				if (cur == null || distTmp < dist) {
+					cur = o;
+					dist = distTmp;
 				}
 			}
 		}
@@ -99,16 +109,44 @@ public class Objects extends MethodProvider {
 	}
 
 	/**
-	 * Returns the <tt>RSObject</tt> that is nearest, out of all of the
-	 * RSObjects with the provided ID(s).
+	 * Returns the <tt>RSObject</tt> accepted by the provided Filter that is
+	 * the shortest walk away. Objects that cannot be reached are ignored.
+	 *
+	 * @param filter Filters out unwanted objects.
+	 * @return An <tt>RSObject</tt> representing the nearest reachable object
+	 *         that was accepted by the filter; or null if there are none in
+	 *         the current region.
+	 * @see Calculations#distanceField()
+	 */
+	public RSObject getNearestReachable(final Filter<RSObject> filter) {
+		ObjectIndex index = index();
+		DistanceField field = methods.calc.distanceField();
+		RSObject cur = null;
+		int dist = -1;
+		for (int i = 0; i < index.objects.length; i++) {
+			RSObject o = index.objects[i];
+			if (filter.accept(o)) {
+				int distTmp = field.distanceTo(new RSTile(index.locX[i], index.locY[i]), true);
+				if (distTmp != -1 && (cur == null || distTmp < dist)) {
+					cur = o;
+					dist = distTmp;
+				}
+			}
+		}
+		return cur;
+	}
+
+	/**
+	 * Returns the reachable <tt>RSObject</tt> with one of the provided ID(s)
+	 * that is the shortest walk away.
 	 *
 	 * @param ids The ID(s) of the RSObject that you are searching.
-	 * @return An <tt>RSObject</tt> representing the nearest object with one of
-	 *         the provided IDs; or null if there are no matching objects in the
+	 * @return An <tt>RSObject</tt> representing the nearest reachable object
+	 *         with one of the provided IDs; or null if there are none in the
 	 *         current region.
 	 */
-	public RSObject getNearest(final int... ids) {
-		return getNearest(new Filter<RSObject>() {
+	public RSObject getNearestReachable(final int... ids) {
+		return getNearestReachable(new Filter<RSObject>() {
 			public boolean accept(RSObject o) {
 				for (int id : ids) {
 					if (o.getID() == id) {
@@ -120,6 +158,24 @@ public class Objects extends MethodProvider {
 		});
 	}
 
+	/**
+	 * Returns the <tt>RSObject</tt> that is nearest, out of all of the
+	 * RSObjects with the provided ID(s).
+	 *
+	 * @param ids The ID(s) of the RSObject that you are searching.
+	 * @return An <tt>RSObject</tt> representing the nearest object with one of
+	 *         the provided IDs; or null if there are no matching objects in the
+	 *         current region.
+	 */
+	public RSObject getNearest(final int... ids) {
+		ObjectIndex index = index();
+		int[][] buckets = new int[ids.length][];
+		for (int i = 0; i < ids.length; i++) {
+			buckets[i] = index.withId(ids[i]);
+		}
+		return nearest(index, buckets);
+	}
+
 	/**
 	 * Returns the <tt>RSObject</tt> that is nearest, out of all of the
 	 * RSObjects with the provided name(s).
@@ -130,19 +186,12 @@ public class Objects extends MethodProvider {
 	 *         the current region.
 	 */
 	public RSObject getNearest(final String... names) {
-		return getNearest(new Filter<RSObject>() {
-			public boolean accept(RSObject o) {
-				RSObjectDef def = o.getDef();
-				if (def != null) {
-					for (String name : names) {
-						if (name.equals(def.getName())) {
-							return true;
-						}
-					}
-				}
-				return false;
-			}
-		});
+		ObjectIndex index = index();
+		int[][] buckets = new int[names.length][];
+		for (int i = 0; i < names.length; i++) {
+			buckets[i] = index.withName(names[i]);
+		}
+		return nearest(index, buckets);
 	}
 
 	/**
@@ -178,10 +227,8 @@ public class Objects extends MethodProvider {
 	 * @return An RSObject[] of the objects on the specified tile.
 	 */
 	public RSObject[] getAt(final RSTile t, final int mask) {
-		Set<RSObject> objects = getAtLocal(
-				t.getX() - methods.client.getBaseX(),
-				t.getY() - methods.client.getBaseY(), mask);
-		return objects.toArray(new RSObject[objects.size()]);
+		ObjectIndex index = index();
+		return index.at(t.getX() - index.getBaseX(), t.getY() - index.getBaseY(), mask);
 	}
 
 	/**
@@ -192,103 +239,40 @@ public class Objects extends MethodProvider {
 	 * @return An RSObject[] of the objects on the specified tile.
 	 */
 	public RSObject[] getAllAt(final RSTile t) {
-		Set<RSObject> objects = getAtLocal(
-				t.getX() - methods.client.getBaseX(),
-				t.getY() - methods.client.getBaseY(), -1);
-		return objects.toArray(new RSObject[objects.size()]);
+		return getAt(t, -1);
 	}
 
-	private Set<RSObject> getAtLocal(int x, int y, final int mask) {
-		org.rsbot.client.Client client = methods.client;
-		Set<RSObject> objects = new LinkedHashSet<RSObject>();
-		if (client.getRSGroundArray() == null) {
-			return objects;
-		}
-
-		try {
-			int plane = client.getPlane();
-			org.rsbot.client.RSGround rsGround = client.getRSGroundArray()[plane][x][y];
-
-			if (rsGround != null) {
-				org.rsbot.client.RSObject rsObj;
-				org.rsbot.client.RSInteractable obj;
-
-				x += methods.client.getBaseX();
-				y += methods.client.getBaseY();
-
-				// Interactable (e.g. Trees)
-				if ((mask & TYPE_INTERACTABLE) != 0) {
-					for (RSAnimableNode node = rsGround.getRSAnimableList(); node != null; node = node
-							.getNext()) {
-						obj = node.getRSAnimable();
-						if (obj != null
-								&& obj instanceof org.rsbot.client.RSObject) {
-							rsObj = (org.rsbot.client.RSObject) obj;
-							if (rsObj.getID() != -1) {
-								objects.add(new RSObject(methods, rsObj,
-										RSObject.Type.INTERACTABLE, plane));
-							}
-						}
-					}
-				}
-
-				// Ground Decorations
-				if ((mask & TYPE_FLOOR_DECORATION) != 0) {
-					obj = rsGround.getFloorDecoration();
-					if (obj != null) {
-						rsObj = (org.rsbot.client.RSObject) obj;
-						if (rsObj.getID() != -1) {
-							objects.add(new RSObject(methods, rsObj,
-									RSObject.Type.FLOOR_DECORATION, plane));
-						}
-					}
-				}
-
-				// Boundaries / Doors / Fences / Walls
-				if ((mask & TYPE_BOUNDARY) != 0) {
-					obj = rsGround.getBoundary1();
-					if (obj != null) {
-						rsObj = (org.rsbot.client.RSObject) obj;
-						if (rsObj.getID() != -1) {
-							objects.add(new RSObject(methods, rsObj,
-									RSObject.Type.BOUNDARY, plane));
-						}
-					}
-
-					obj = rsGround.getBoundary2();
-					if (obj != null) {
-						rsObj = (org.rsbot.client.RSObject) obj;
-						if (rsObj.getID() != -1) {
-							objects.add(new RSObject(methods, rsObj,
-									RSObject.Type.BOUNDARY, plane));
-						}
-					}
-				}
-
-				// Wall Decorations
-				if ((mask & TYPE_WALL_DECORATION) != 0) {
-					obj = rsGround.getWallDecoration1();
-					if (obj != null) {
-						rsObj = (org.rsbot.client.RSObject) obj;
-						if (rsObj.getID() != -1) {
-							objects.add(new RSObject(methods, rsObj,
-									RSObject.Type.WALL_DECORATION, plane));
-						}
-					}
+	/**
+	 * Gets the index of the loaded objects, building a new one if the region
+	 * or plane has changed or a game tick has passed.
+	 */
+	private ObjectIndex index() {
+		return methods.game.getSnapshot().getObjects();
+	}
 
-					obj = rsGround.getWallDecoration2();
-					if (obj != null) {
-						rsObj = (org.rsbot.client.RSObject) obj;
-						if (rsObj.getID() != -1) {
-							objects.add(new RSObject(methods, rsObj,
-									RSObject.Type.WALL_DECORATION, plane));
-						}
-					}
+	/**
+	 * Finds the nearest of the indexed objects in the given buckets. Ties go
+	 * to the object found first in tile order.
+	 */
+	private RSObject nearest(final ObjectIndex index, final int[][] buckets) {
+		RSTile pos = methods.players.getMyPlayer().getLocation();
+		int cur = -1;
+		double dist = -1;
+		for (int[] bucket : buckets) {
+			for (int i : bucket) {
+				double distTmp = distance(index, i, pos);
+				if (cur == -1 || distTmp < dist || (distTmp == dist && i < cur)) {
+					cur = i;
+					dist = distTmp;
 				}
 			}
-		} catch (Exception ignored) {
 		}
-		return objects;
+		return cur == -1 ? null : index.objects[cur];
+	}
+
+	private static double distance(final ObjectIndex index, final int i, final RSTile pos) {
+		int dx = index.locX[i] - pos.getX(), dy = index.locY[i] - pos.getY();
+		return Math.sqrt(dx * dx + dy * dy);
 	}
 
 }
@@ -2,12 +2,17 @@ package org.rsbot.script.methods;
 
 import org.rsbot.script.util.Filter;
 import org.rsbot.script.wrappers.RSPlayer;
+import org.rsbot.script.wrappers.RSTile;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Player related operations.
+ * <p/>
+ * Filters are given a cursor that is moved from player to player, so they
+ * should not keep the player they are given; the methods return stable
+ * wrappers for the players that are accepted.
  */
 public class Players extends MethodProvider {
 
@@ -49,18 +54,15 @@ public class Players extends MethodProvider {
 	 * @return All valid RSPlayers.
 	 */
 	public RSPlayer[] getAll(final Filter<RSPlayer> filter) {
-		int[] indices = methods.client.getRSPlayerIndexArray();
-		org.rsbot.client.RSPlayer[] array = methods.client.getRSPlayerArray();
-		Set<RSPlayer> players = new HashSet<RSPlayer>();
-		for (int index : indices) {
-			if (index != 0 && array[index] != null) {
-				RSPlayer player = new RSPlayer(methods, array[index]);
-				if (filter.accept(player)) {
-					players.add(player);
-				}
+		WorldSnapshot.Characters<RSPlayer> players = methods.game.getSnapshot().getPlayers();
+		List<RSPlayer> accepted = new ArrayList<RSPlayer>(players.size());
+		RSPlayer cursor = players.cursor();
+		for (int i = 0; i < players.size(); i++) {
+			if (filter.accept(players.move(cursor, i))) {
+				accepted.add(players.get(i));
 			}
 		}
-		return players.toArray(new RSPlayer[players.size()]);
+		return accepted.toArray(new RSPlayer[accepted.size()]);
 	}
 
 	/**
@@ -73,24 +75,19 @@ public class Players extends MethodProvider {
 	 *         matching players in the current region.
 	 */
 	public RSPlayer getNearest(final Filter<RSPlayer> filter) {
+		WorldSnapshot.Characters<RSPlayer> players = methods.game.getSnapshot().getPlayers();
+		RSTile pos = players.getMyLocation();
 		int min = 20;
-		RSPlayer closest = null;
-		org.rsbot.client.RSPlayer[] players = methods.client.getRSPlayerArray();
-		int[] indices = methods.client.getRSPlayerIndexArray();
-		for (int index : indices) {
-			if (players[index] == null) {
-				continue;
-			}
-			RSPlayer player = new RSPlayer(methods, players[index]);
-			if (filter.accept(player)) {
-				int distance = methods.calc.distanceTo(player);
-				if (distance < min) {
-					min = distance;
-					closest = player;
-				}
+		int closest = -1;
+		RSPlayer cursor = players.cursor();
+		for (int i = 0; i < players.size(); i++) {
+			int distance = WorldSnapshot.distance(players.getX(i), players.getY(i), pos.getX(), pos.getY());
+			if (distance < min && filter.accept(players.move(cursor, i))) {
+				min = distance;
+				closest = i;
 			}
 		}
-		return closest;
+		return closest == -1 ? null : players.get(closest);
 	}
 
 	/**
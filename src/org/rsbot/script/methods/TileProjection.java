@@ -0,0 +1,176 @@
+package org.rsbot.script.methods;
+
+import org.rsbot.client.TileData;
+
+import java.util.Arrays;
+
+/**
+ * A table of tile screen locations for the loaded region. The screen
+ * locations of tile centres and south-west corners are filled in as they
+ * are asked for, until the viewport, region, plane or client state
+ * changes. Ground heights are always read from the client, which fills
+ * them in place while a region loads.
+ * <p/>
+ * Screen locations are packed as <tt>x &lt;&lt; 16 | y</tt>; or -1 if off
+ * screen.
+ */
+class TileProjection {
+
+	static final int SIZE = 104;
+
+	private int plane = -1, baseX, baseY, state;
+	private byte[][][] settings;
+	private TileData[] planes;
+	private Viewport viewport;
+
+	private final int[] centres = new int[SIZE * SIZE];
+	private final int[] corners = new int[SIZE * SIZE];
+	private final int[] centreStamps = new int[SIZE * SIZE];
+	private final int[] cornerStamps = new int[SIZE * SIZE];
+	private int generation = 1;
+
+	/**
+	 * Gets the height of the ground at a point.
+	 *
+	 * @see Calculations#tileHeight(int, int)
+	 */
+	synchronized int tileHeight(final org.rsbot.client.Client client, final int x, final int y) {
+		update(client);
+		return height(x, y);
+	}
+
+	/**
+	 * Gets the packed screen location of a point on the ground.
+	 *
+	 * @see Calculations#groundToScreen(int, int, int)
+	 */
+	synchronized int groundToScreen(final org.rsbot.client.Client client, final Viewport viewport,
+	                                final int x, final int y, final int height) {
+		update(client);
+		update(viewport);
+		if (height == 0 && x >= 0 && y >= 0 && x < SIZE << 9 && y < SIZE << 9) {
+			if ((x & 511) == 256 && (y & 511) == 256) {
+				return centre(x >> 9, y >> 9);
+			} else if ((x & 511) == 0 && (y & 511) == 0) {
+				return corner(x >> 9, y >> 9);
+			}
+		}
+		return project(x, y, height);
+	}
+
+	/**
+	 * Finds the tiles of the loaded region whose centres lie inside the
+	 * given screen bounds, exclusive.
+	 *
+	 * @return The packed world locations <tt>x &lt;&lt; 16 | y</tt> of the
+	 *         tiles, ordered by x, then y.
+	 */
+	synchronized int[] onScreen(final org.rsbot.client.Client client, final Viewport viewport,
+	                            final int minX, final int minY, final int maxX, final int maxY) {
+		update(client);
+		update(viewport);
+		int[] found = new int[256];
+		int count = 0;
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				final int p = centre(x, y);
+				if (p == -1) {
+					continue;
+				}
+				final int sx = p >>> 16, sy = p & 0xffff;
+				if (sx > minX && sx < maxX && sy > minY && sy < maxY) {
+					if (count == found.length) {
+						found = Arrays.copyOf(found, count * 2);
+					}
+					found[count++] = (baseX + x) << 16 | (baseY + y);
+				}
+			}
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	private int centre(final int x, final int y) {
+		final int t = x * SIZE + y;
+		if (centreStamps[t] != generation) {
+			centreStamps[t] = generation;
+			centres[t] = project((x << 9) + 256, (y << 9) + 256, 0);
+		}
+		return centres[t];
+	}
+
+	private int corner(final int x, final int y) {
+		final int t = x * SIZE + y;
+		if (cornerStamps[t] != generation) {
+			cornerStamps[t] = generation;
+			corners[t] = project(x << 9, y << 9, 0);
+		}
+		return corners[t];
+	}
+
+	private int project(final int x, final int y, final int height) {
+		if (settings == null || planes == null || x < 512 || y < 512 || x > 52224 || y > 52224) {
+			return -1;
+		}
+		final long p = viewport.worldToScreenPacked(x, y, height(x, y) + height);
+		return p == Calculations.OFF_SCREEN ? -1 : Calculations.unpackX(p) << 16 | Calculations.unpackY(p);
+	}
+
+	private int height(final int x, final int y) {
+		final int x1 = x >> 9, y1 = y >> 9;
+		if (settings == null || x1 < 0 || x1 >= SIZE || y1 < 0 || y1 >= SIZE) {
+			return 0;
+		}
+		int p = plane;
+		if ((p <= 3) && ((settings[1][x1][y1] & 2) != 0)) {
+			++p;
+		}
+		if (planes == null || p >= planes.length || planes[p] == null) {
+			return 0;
+		}
+		final int[][] heights = planes[p].getHeights();
+		if (heights == null || x1 + 1 >= heights.length || y1 + 1 >= heights[x1 + 1].length) {
+			return 0;
+		}
+		final int x2 = x & 512 - 1;
+		final int y2 = y & 512 - 1;
+		final int start_h = (heights[x1][y1] * (512 - x2) + heights[x1 + 1][y1] * x2) >> 9;
+		final int end_h = (heights[x1][1 + y1] * (512 - x2) + heights[x1 + 1][y1 + 1] * x2) >> 9;
+		return start_h * (512 - y2) + end_h * y2 >> 9;
+	}
+
+	/**
+	 * Forgets the projected tiles if the region, plane, ground data or
+	 * client state changed. The client state changes while a region loads,
+	 * so tiles projected against heights that were still being filled in
+	 * are not kept.
+	 */
+	private void update(final org.rsbot.client.Client client) {
+		final int plane = client.getPlane();
+		final int baseX = client.getBaseX(), baseY = client.getBaseY();
+		final int state = client.getLoginIndex();
+		final byte[][][] settings = client.getGroundByteArray();
+		final TileData[] planes = client.getTileData();
+		if (plane == this.plane && baseX == this.baseX && baseY == this.baseY && state == this.state
+				&& settings == this.settings && planes == this.planes) {
+			return;
+		}
+		this.plane = plane;
+		this.baseX = baseX;
+		this.baseY = baseY;
+		this.state = state;
+		this.settings = settings;
+		this.planes = planes;
+		++generation;
+	}
+
+	/**
+	 * Forgets the projected tiles if the viewport changed.
+	 */
+	private void update(final Viewport viewport) {
+		if (viewport != this.viewport) {
+			this.viewport = viewport;
+			++generation;
+		}
+	}
+
+}
@@ -0,0 +1,185 @@
+package org.rsbot.script.methods;
+
+import org.rsbot.client.Render;
+import org.rsbot.client.RenderData;
+
+import java.awt.*;
+
+/**
+ * An immutable copy of the values the client uses to project the game world
+ * onto the screen. A new viewport with a higher version is published
+ * whenever any of the values change, so every point projected through one
+ * viewport belongs to the same frame, and anything cached against a
+ * version stays valid until the camera moves.
+ *
+ * @see Calculations#getViewport()
+ */
+public final class Viewport {
+
+	/**
+	 * The viewport used before the client has reported one.
+	 */
+	static final Viewport DEFAULT = new Viewport();
+
+	private final int version;
+	private final boolean fixed;
+
+	private final float absoluteX1, absoluteX2;
+	private final float absoluteY1, absoluteY2;
+	private final int xMultiplier, yMultiplier;
+	private final int zNear, zFar;
+
+	private final float xOff, xX, xY, xZ;
+	private final float yOff, yX, yY, yZ;
+	private final float zOff, zX, zY, zZ;
+
+	private Viewport() {
+		version = 0;
+		fixed = false;
+		absoluteX1 = absoluteX2 = absoluteY1 = absoluteY2 = 0;
+		xMultiplier = yMultiplier = 512;
+		zNear = 50;
+		zFar = 3500;
+		xOff = xY = xZ = yOff = yX = yZ = zOff = zX = zY = 0;
+		xX = yY = zZ = 32768;
+	}
+
+	Viewport(final Render r, final RenderData rd, final boolean fixed, final int version) {
+		this.version = version;
+		this.fixed = fixed;
+		absoluteX1 = r.getAbsoluteX1();
+		absoluteX2 = r.getAbsoluteX2();
+		absoluteY1 = r.getAbsoluteY1();
+		absoluteY2 = r.getAbsoluteY2();
+		xMultiplier = r.getXMultiplier();
+		yMultiplier = r.getYMultiplier();
+		zNear = r.getZNear();
+		zFar = r.getZFar();
+		xOff = rd.getXOff();
+		xX = rd.getXX();
+		xY = rd.getXY();
+		xZ = rd.getXZ();
+		yOff = rd.getYOff();
+		yX = rd.getYX();
+		yY = rd.getYY();
+		yZ = rd.getYZ();
+		zOff = rd.getZOff();
+		zX = rd.getZX();
+		zY = rd.getZY();
+		zZ = rd.getZZ();
+	}
+
+	/**
+	 * Whether this viewport holds the given client values.
+	 */
+	boolean matches(final Render r, final RenderData rd, final boolean fixed) {
+		return this.fixed == fixed && absoluteX1 == r.getAbsoluteX1() && absoluteX2 == r.getAbsoluteX2()
+				&& absoluteY1 == r.getAbsoluteY1() && absoluteY2 == r.getAbsoluteY2()
+				&& xMultiplier == r.getXMultiplier() && yMultiplier == r.getYMultiplier()
+				&& zNear == r.getZNear() && zFar == r.getZFar()
+				&& xOff == rd.getXOff() && xX == rd.getXX() && xY == rd.getXY() && xZ == rd.getXZ()
+				&& yOff == rd.getYOff() && yX == rd.getYX() && yY == rd.getYY() && yZ == rd.getYZ()
+				&& zOff == rd.getZOff() && zX == rd.getZX() && zY == rd.getZY() && zZ == rd.getZZ();
+	}
+
+	/**
+	 * Gets the version of this viewport. Later viewports have higher
+	 * versions.
+	 *
+	 * @return The version.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Whether the game screen was in fixed mode when this viewport was
+	 * published.
+	 *
+	 * @return <tt>true</tt> if in fixed mode; otherwise <tt>false</tt>.
+	 */
+	public boolean isFixed() {
+		return fixed;
+	}
+
+	/**
+	 * Returns the screen location of a given 3D point in the game world.
+	 *
+	 * @param x x value on the game plane.
+	 * @param y y value on the game plane.
+	 * @param z z value on the game plane.
+	 * @return <code>Point</code> based on screen; otherwise
+	 *         <code>new Point(-1, -1)</code>.
+	 */
+	public Point worldToScreen(final int x, final int y, final int z) {
+		final long p = worldToScreenPacked(x, y, z);
+		return new Point(Calculations.unpackX(p), Calculations.unpackY(p));
+	}
+
+	/**
+	 * Returns the screen location of a given 3D point in the game world,
+	 * packed into a long.
+	 *
+	 * @param x x value on the game plane.
+	 * @param y y value on the game plane.
+	 * @param z z value on the game plane.
+	 * @return The packed screen location; otherwise
+	 *         {@link Calculations#OFF_SCREEN}.
+	 * @see Calculations#pack(int, int)
+	 */
+	public long worldToScreenPacked(final int x, final int y, final int z) {
+		// perspective projection: hooked viewport values are calculated in
+		// client based on camera state
+		// (so no need to project using camera values and sin/cos)
+		final float _z = zOff + ((int) (zX * x + zY * z + zZ * y));
+		if (_z >= zNear && _z <= zFar) {
+			final int _x = (int) (xMultiplier * ((int) xOff + ((int) (xX * x + xY * z + xZ * y))) / _z);
+			final int _y = (int) (yMultiplier * ((int) yOff + ((int) (yX * x + yY * z + yZ * y))) / _z);
+			if (_x >= absoluteX1 && _x <= absoluteX2 && _y >= absoluteY1 && _y <= absoluteY2) {
+				final int border = fixed ? 4 : 0;
+				return Calculations.pack((int) (_x - absoluteX1) + border, (int) (_y - absoluteY1) + border);
+			}
+		}
+		return Calculations.OFF_SCREEN;
+	}
+
+	/**
+	 * Projects a batch of points in the game world onto the screen. Point
+	 * <tt>i</tt> is at <tt>(x + xs[i], y + ys[i], z + zs[i])</tt>.
+	 *
+	 * @param x       x offset of every point on the game plane.
+	 * @param y       y offset of every point on the game plane.
+	 * @param z       z offset of every point on the game plane.
+	 * @param xs      x values of the points.
+	 * @param ys      y values of the points.
+	 * @param zs      z values of the points.
+	 * @param count   The number of points.
+	 * @param screenX Receives the screen x of each point; or -1 if the point
+	 *                is not on screen.
+	 * @param screenY Receives the screen y of each point; or -1 if the point
+	 *                is not on screen.
+	 * @return The number of points on screen.
+	 */
+	public int worldToScreen(final int x, final int y, final int z,
+	                         final int[] xs, final int[] ys, final int[] zs, final int count,
+	                         final int[] screenX, final int[] screenY) {
+		final int border = fixed ? 4 : 0;
+		int onScreen = 0;
+		for (int i = 0; i < count; ++i) {
+			final int px = x + xs[i], py = y + ys[i], pz = z + zs[i];
+			screenX[i] = screenY[i] = -1;
+			final float _z = zOff + ((int) (zX * px + zY * pz + zZ * py));
+			if (_z >= zNear && _z <= zFar) {
+				final int _x = (int) (xMultiplier * ((int) xOff + ((int) (xX * px + xY * pz + xZ * py))) / _z);
+				final int _y = (int) (yMultiplier * ((int) yOff + ((int) (yX * px + yY * pz + yZ * py))) / _z);
+				if (_x >= absoluteX1 && _x <= absoluteX2 && _y >= absoluteY1 && _y <= absoluteY2) {
+					screenX[i] = (int) (_x - absoluteX1) + border;
+					screenY[i] = (int) (_y - absoluteY1) + border;
+					++onScreen;
+				}
+			}
+		}
+		return onScreen;
+	}
+
+}
@@ -1,5 +1,6 @@
 package org.rsbot.script.methods;
 
+import org.rsbot.script.internal.TilePathFinder;
 import org.rsbot.script.wrappers.*;
 
 import java.awt.*;
@@ -18,6 +19,7 @@ public class Walking extends MethodProvider {
 	private RSPath lastPath;
 	private RSTile lastDestination;
 	private RSTile lastStep;
+	private final TilePathFinder pathFinder = new TilePathFinder();
 
 	/**
 	 * Creates a new path based on a provided array of tile waypoints.
@@ -316,6 +318,16 @@ public class Walking extends MethodProvider {
 		return new RSTile(data.getX(), data.getY());
 	}
 
+	/**
+	 * Gets the search engine used to find paths within the loaded region.
+	 * Its buffers are reused between searches.
+	 *
+	 * @return The path finder.
+	 */
+	public TilePathFinder getPathFinder() {
+		return pathFinder;
+	}
+
 	// DEPRECATED
 
 	/**
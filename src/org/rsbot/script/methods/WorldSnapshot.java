@@ -0,0 +1,476 @@
+package org.rsbot.script.methods;
+
+import org.rsbot.client.HashTable;
+import org.rsbot.client.Node;
+import org.rsbot.client.RSNPCNode;
+import org.rsbot.script.internal.wrappers.Deque;
+import org.rsbot.script.wrappers.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A view of the loaded world that stays the same for one game tick. The
+ * NPCs, players, ground items and objects are each read from the client
+ * the first time they are asked for, and then kept until the next tick or
+ * region change, so every query made during a tick sees the same state.
+ * <p/>
+ * Characters and ground items are stored column by column: entry
+ * <tt>i</tt> of each column describes the same character or item, in the
+ * order the client lists them.
+ *
+ * @see Game#getSnapshot()
+ */
+public class WorldSnapshot {
+
+	/**
+	 * Client loop cycles per game tick.
+	 */
+	static final int TICK_CYCLES = 30;
+
+	private final MethodContext ctx;
+	private final org.rsbot.client.RSGround[][][] ground;
+	private final int baseX, baseY, plane, cycle;
+	private final boolean loggedIn;
+
+	private Characters<RSNPC> npcs;
+	private Characters<RSPlayer> players;
+	private Items items;
+	private ObjectIndex objects;
+
+	WorldSnapshot(final MethodContext ctx) {
+		this.ctx = ctx;
+		final org.rsbot.client.Client client = ctx.client;
+		ground = client.getRSGroundArray();
+		baseX = client.getBaseX();
+		baseY = client.getBaseY();
+		plane = client.getPlane();
+		cycle = client.getLoopCycle();
+		loggedIn = ctx.game.isLoggedIn();
+	}
+
+	/**
+	 * Whether this snapshot still describes the loaded world: the region
+	 * and plane are unchanged and no game tick has passed since it was
+	 * taken.
+	 *
+	 * @return <tt>true</tt> if the snapshot is current; otherwise
+	 *         <tt>false</tt>.
+	 */
+	public boolean isValid() {
+		final org.rsbot.client.Client client = ctx.client;
+		final int elapsed = client.getLoopCycle() - cycle;
+		return elapsed >= 0 && elapsed < TICK_CYCLES && client.getRSGroundArray() == ground
+				&& client.getPlane() == plane && client.getBaseX() == baseX && client.getBaseY() == baseY;
+	}
+
+	public int getCycle() {
+		return cycle;
+	}
+
+	public int getBaseX() {
+		return baseX;
+	}
+
+	public int getBaseY() {
+		return baseY;
+	}
+
+	public int getPlane() {
+		return plane;
+	}
+
+	/**
+	 * Gets the loaded NPCs.
+	 *
+	 * @return The NPCs, in the client's order.
+	 */
+	public synchronized Characters<RSNPC> getNPCs() {
+		if (npcs == null) {
+			final org.rsbot.client.Client client = ctx.client;
+			final int[] indices = client.getRSNPCIndexArray();
+			final HashTable nc = client.getRSNPCNC();
+			final BitSet seen = new BitSet();
+			int[] index = new int[64];
+			org.rsbot.client.RSCharacter[] accessors = new org.rsbot.client.RSCharacter[64];
+			int count = 0;
+			for (int i : indices) {
+				if (seen.get(i)) {
+					continue;
+				}
+				seen.set(i);
+				final Node node = ctx.nodes.lookup(nc, i);
+				if (node instanceof RSNPCNode) {
+					if (count == index.length) {
+						index = Arrays.copyOf(index, count * 2);
+						accessors = Arrays.copyOf(accessors, count * 2);
+					}
+					index[count] = i;
+					accessors[count++] = ((RSNPCNode) node).getRSNPC();
+				}
+			}
+			npcs = new Characters<RSNPC>(new RSNPC[count], index, accessors);
+		}
+		return npcs;
+	}
+
+	/**
+	 * Gets the loaded players, including the local player.
+	 *
+	 * @return The players, in the client's order.
+	 */
+	public synchronized Characters<RSPlayer> getPlayers() {
+		if (players == null) {
+			final org.rsbot.client.Client client = ctx.client;
+			final int[] indices = client.getRSPlayerIndexArray();
+			final org.rsbot.client.RSPlayer[] array = client.getRSPlayerArray();
+			final BitSet seen = new BitSet();
+			int[] index = new int[64];
+			org.rsbot.client.RSCharacter[] accessors = new org.rsbot.client.RSCharacter[64];
+			int count = 0;
+			for (int i : indices) {
+				if (i == 0 || seen.get(i) || array[i] == null) {
+					continue;
+				}
+				seen.set(i);
+				if (count == index.length) {
+					index = Arrays.copyOf(index, count * 2);
+					accessors = Arrays.copyOf(accessors, count * 2);
+				}
+				index[count] = i;
+				accessors[count++] = array[i];
+			}
+			players = new Characters<RSPlayer>(new RSPlayer[count], index, accessors);
+		}
+		return players;
+	}
+
+	/**
+	 * Gets the items on the ground of the loaded region on the current
+	 * plane.
+	 *
+	 * @return The ground items, ordered by tile x, then tile y.
+	 */
+	public synchronized Items getGroundItems() {
+		if (items == null) {
+			items = new Items();
+		}
+		return items;
+	}
+
+	/**
+	 * Gets the straight line distance between two tiles, rounded down.
+	 */
+	static int distance(final int x1, final int y1, final int x2, final int y2) {
+		final int dx = x1 - x2, dy = y1 - y2;
+		return (int) Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/**
+	 * Reads the tile of the local player, so that distances within a table
+	 * are measured from where the player was when the table was read.
+	 */
+	private RSTile readMyLocation() {
+		final org.rsbot.client.RSPlayer me = ctx.client.getMyRSPlayer();
+		if (me == null) {
+			return new RSTile(-1, -1);
+		}
+		return new RSTile(baseX + (me.getX() >> 9), baseY + (me.getY() >> 9));
+	}
+
+	synchronized ObjectIndex getObjects() {
+		if (objects == null) {
+			objects = new ObjectIndex(ctx);
+		}
+		return objects;
+	}
+
+	/**
+	 * The characters of a snapshot. Wrappers are only created for the
+	 * characters that are asked for, and are then kept for the rest of the
+	 * tick. Filters can instead be given a cursor, one wrapper that is moved
+	 * from character to character.
+	 */
+	public class Characters<T extends RSCharacter> {
+
+		private final T[] characters;
+		private final org.rsbot.client.RSCharacter[] accessors;
+		private final int[] index, id, level, x, y, animation, health;
+		private final RSTile myLocation;
+
+		private Characters(final T[] characters, final int[] index, final org.rsbot.client.RSCharacter[] accessors) {
+			final int n = characters.length;
+			myLocation = readMyLocation();
+			this.characters = characters;
+			this.accessors = Arrays.copyOf(accessors, n);
+			this.index = Arrays.copyOf(index, n);
+			id = new int[n];
+			level = new int[n];
+			x = new int[n];
+			y = new int[n];
+			animation = new int[n];
+			health = new int[n];
+			for (int i = 0; i < n; i++) {
+				final org.rsbot.client.RSCharacter c = accessors[i];
+				if (c instanceof org.rsbot.client.RSNPC) {
+					final org.rsbot.client.RSNPC npc = (org.rsbot.client.RSNPC) c;
+					final org.rsbot.client.RSNPCDef def = npc.getRSNPCDef();
+					id[i] = def == null ? -1 : def.getType();
+					level[i] = npc.getLevel();
+				} else {
+					id[i] = -1;
+					level[i] = ((org.rsbot.client.RSPlayer) c).getLevel();
+				}
+				x[i] = baseX + (c.getX() >> 9);
+				y[i] = baseY + (c.getY() >> 9);
+				animation[i] = c.getAnimation();
+				health[i] = loggedIn && cycle < c.getLoopCycleStatus() ? c.getHPRatio() * 100 / 255 : 100;
+			}
+		}
+
+		public int size() {
+			return characters.length;
+		}
+
+		/**
+		 * Gets the tile of the local player when these characters were
+		 * read, to measure their distances from.
+		 *
+		 * @return The tile; or <tt>(-1, -1)</tt> if there was no player.
+		 */
+		public RSTile getMyLocation() {
+			return myLocation;
+		}
+
+		/**
+		 * Gets the wrapper of a character. The same wrapper is returned for
+		 * the rest of the tick.
+		 */
+		@SuppressWarnings("unchecked")
+		public synchronized T get(final int i) {
+			T c = characters[i];
+			if (c == null) {
+				final org.rsbot.client.RSCharacter accessor = accessors[i];
+				if (accessor instanceof org.rsbot.client.RSNPC) {
+					c = (T) new RSNPC(ctx, (org.rsbot.client.RSNPC) accessor);
+				} else {
+					c = (T) new RSPlayer(ctx, (org.rsbot.client.RSPlayer) accessor);
+				}
+				characters[i] = c;
+			}
+			return c;
+		}
+
+		/**
+		 * Creates a cursor for these characters. A cursor is a wrapper that
+		 * is moved between characters with {@link #move}; it must not be
+		 * kept once moved, and should only be used by one thread.
+		 *
+		 * @return A cursor on the first character.
+		 */
+		@SuppressWarnings("unchecked")
+		public T cursor() {
+			final Cursor cursor = characters instanceof RSNPC[] ? new NPCCursor() : new PlayerCursor();
+			if (accessors.length > 0) {
+				cursor.setAccessor(accessors[0]);
+			}
+			return (T) cursor;
+		}
+
+		/**
+		 * Moves a cursor onto a character.
+		 *
+		 * @param cursor A cursor from {@link #cursor()}.
+		 * @param i      The character.
+		 * @return The cursor.
+		 */
+		public T move(final T cursor, final int i) {
+			((Cursor) cursor).setAccessor(accessors[i]);
+			return cursor;
+		}
+
+		/**
+		 * Gets the client's index of a character.
+		 */
+		public int getIndex(final int i) {
+			return index[i];
+		}
+
+		/**
+		 * Gets the ID of an NPC; or -1 for a player.
+		 */
+		public int getID(final int i) {
+			return id[i];
+		}
+
+		public int getLevel(final int i) {
+			return level[i];
+		}
+
+		public int getX(final int i) {
+			return x[i];
+		}
+
+		public int getY(final int i) {
+			return y[i];
+		}
+
+		public int getAnimation(final int i) {
+			return animation[i];
+		}
+
+		/**
+		 * Gets the health of a character as a percentage, which is 100
+		 * unless it is in combat.
+		 */
+		public int getHPPercent(final int i) {
+			return health[i];
+		}
+
+	}
+
+	/**
+	 * The ground items of a snapshot. Wrappers are only created for the
+	 * items that are asked for.
+	 */
+	public class Items {
+
+		private final RSGroundItem[] items;
+		private final int[] id, stack, x, y;
+		private final RSTile myLocation;
+
+		private Items() {
+			myLocation = readMyLocation();
+			int[] columns = new int[256];
+			int count = 0;
+			if (loggedIn) {
+				final HashTable itemNC = ctx.client.getRSItemHashTable();
+				for (int x = baseX; x < baseX + ObjectIndex.SIZE; x++) {
+					for (int y = baseY; y < baseY + ObjectIndex.SIZE; y++) {
+						final org.rsbot.client.NodeListCache itemNLC = (org.rsbot.client.NodeListCache) ctx.nodes
+								.lookup(itemNC, x | y << 14 | plane << 28);
+						if (itemNLC == null) {
+							continue;
+						}
+						final Deque<org.rsbot.client.RSItem> itemNL = new Deque<org.rsbot.client.RSItem>(
+								itemNLC.getNodeList());
+						for (org.rsbot.client.RSItem item = itemNL.getHead(); item != null; item = itemNL.getNext()) {
+							final int n = count * 4;
+							if (n == columns.length) {
+								columns = Arrays.copyOf(columns, n * 2);
+							}
+							columns[n] = item.getID();
+							columns[n + 1] = item.getStackSize();
+							columns[n + 2] = x;
+							columns[n + 3] = y;
+							++count;
+						}
+					}
+				}
+			}
+			items = new RSGroundItem[count];
+			id = new int[count];
+			stack = new int[count];
+			x = new int[count];
+			y = new int[count];
+			for (int i = 0; i < count; i++) {
+				id[i] = columns[i * 4];
+				stack[i] = columns[i * 4 + 1];
+				x[i] = columns[i * 4 + 2];
+				y[i] = columns[i * 4 + 3];
+			}
+		}
+
+		public int size() {
+			return items.length;
+		}
+
+		/**
+		 * Gets the tile of the local player when these items were read, to
+		 * measure their distances from.
+		 *
+		 * @return The tile; or <tt>(-1, -1)</tt> if there was no player.
+		 */
+		public RSTile getMyLocation() {
+			return myLocation;
+		}
+
+		/**
+		 * Gets the wrapper of an item. The same wrapper is returned for the
+		 * rest of the tick.
+		 */
+		public synchronized RSGroundItem get(final int i) {
+			RSGroundItem item = items[i];
+			if (item == null) {
+				item = new RSGroundItem(ctx, new RSTile(x[i], y[i]), new RSItem(ctx, id[i], stack[i]));
+				items[i] = item;
+			}
+			return item;
+		}
+
+		public int getID(final int i) {
+			return id[i];
+		}
+
+		public int getStackSize(final int i) {
+			return stack[i];
+		}
+
+		public int getX(final int i) {
+			return x[i];
+		}
+
+		public int getY(final int i) {
+			return y[i];
+		}
+
+	}
+
+	/**
+	 * A character wrapper that can be moved between characters.
+	 */
+	private interface Cursor {
+
+		void setAccessor(org.rsbot.client.RSCharacter accessor);
+
+	}
+
+	private class NPCCursor extends RSNPC implements Cursor {
+
+		private org.rsbot.client.RSNPC accessor;
+
+		NPCCursor() {
+			super(ctx, null);
+		}
+
+		public void setAccessor(final org.rsbot.client.RSCharacter accessor) {
+			this.accessor = (org.rsbot.client.RSNPC) accessor;
+		}
+
+		@Override
+		protected org.rsbot.client.RSCharacter getAccessor() {
+			return accessor;
+		}
+
+	}
+
+	private class PlayerCursor extends RSPlayer implements Cursor {
+
+		private org.rsbot.client.RSPlayer accessor;
+
+		PlayerCursor() {
+			super(ctx, null);
+		}
+
+		public void setAccessor(final org.rsbot.client.RSCharacter accessor) {
+			this.accessor = (org.rsbot.client.RSPlayer) accessor;
+		}
+
+		@Override
+		protected org.rsbot.client.RSCharacter getAccessor() {
+			return accessor;
+		}
+
+	}
+
+}
@@ -0,0 +1,217 @@
+package org.rsbot.script.wrappers;
+
+import java.util.Arrays;
+
+/**
+ * Walking distances from a start tile to the tiles of the loaded region,
+ * found by a breadth-first search over the collision flags.
+ * <p/>
+ * A field may be searched again from a different start; its arrays are
+ * reused, and entries left over from an earlier search are recognised by
+ * their generation stamp rather than being cleared.
+ */
+public class DistanceField {
+
+	/**
+	 * The number of tiles along each side of the loaded region.
+	 */
+	public static final int SIZE = 104;
+
+	private final int[] dist = new int[SIZE * SIZE];
+	private final int[] stamp = new int[SIZE * SIZE];
+	private final int[] queue = new int[SIZE * SIZE];
+	private int generation;
+	private int head, tail;
+
+	private int[][] blocks;
+	private int baseX, baseY;
+	private RSTile start;
+
+	/**
+	 * Computes the distance from the start tile to every reachable tile.
+	 *
+	 * @param blocks The collision flags of the plane to search.
+	 * @param baseX  The x coordinate of the region base.
+	 * @param baseY  The y coordinate of the region base.
+	 * @param start  The start tile.
+	 * @return This field.
+	 */
+	public DistanceField compute(int[][] blocks, int baseX, int baseY, RSTile start) {
+		if (begin(blocks, baseX, baseY, start)) {
+			while (head != tail) {
+				expand(queue[head++]);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Searches from the start tile until the destination is reached.
+	 *
+	 * @param blocks   The collision flags of the plane to search.
+	 * @param baseX    The x coordinate of the region base.
+	 * @param baseY    The y coordinate of the region base.
+	 * @param start    The start tile.
+	 * @param dest     The destination tile.
+	 * @param isObject <tt>true</tt> if reaching any tile adjacent to the
+	 *                 destination should be accepted.
+	 * @return The length of the shortest path to the destination; or -1 if
+	 *         it cannot be reached.
+	 */
+	public int search(int[][] blocks, int baseX, int baseY, RSTile start, RSTile dest, boolean isObject) {
+		if (!begin(blocks, baseX, baseY, start)) {
+			return -1;
+		}
+		final int destX = dest.getX() - baseX, destY = dest.getY() - baseY;
+		while (head != tail) {
+			final int curr = queue[head++];
+			final int x = curr / SIZE, y = curr % SIZE;
+			if (isObject ? Math.abs(x - destX) + Math.abs(y - destY) == 1 : x == destX && y == destY) {
+				return dist[curr];
+			}
+			expand(curr);
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the length of the shortest path from the start tile to the given
+	 * tile.
+	 *
+	 * @param dest     The destination tile.
+	 * @param isObject <tt>true</tt> if reaching any tile adjacent to the
+	 *                 destination should be accepted.
+	 * @return The path length; or -1 if the tile cannot be reached.
+	 */
+	public int distanceTo(RSTile dest, boolean isObject) {
+		final int x = dest.getX() - baseX, y = dest.getY() - baseY;
+		if (!isObject) {
+			return get(x, y);
+		}
+		return min(min(get(x, y - 1), get(x - 1, y)), min(get(x, y + 1), get(x + 1, y)));
+	}
+
+	/**
+	 * Checks whether the given tile can be reached from the start tile.
+	 *
+	 * @param dest     The destination tile.
+	 * @param isObject <tt>true</tt> if reaching any tile adjacent to the
+	 *                 destination should be accepted.
+	 * @return <tt>true</tt> if the tile can be reached; otherwise
+	 *         <tt>false</tt>.
+	 */
+	public boolean canReach(RSTile dest, boolean isObject) {
+		return distanceTo(dest, isObject) != -1;
+	}
+
+	/**
+	 * Gets the tile this field was computed from.
+	 *
+	 * @return The start tile; or <tt>null</tt> if never computed.
+	 */
+	public RSTile getStart() {
+		return start;
+	}
+
+	/**
+	 * Gets the region base this field was computed in.
+	 *
+	 * @return The region base; or <tt>null</tt> if never computed.
+	 */
+	public RSTile getBase() {
+		return start == null ? null : new RSTile(baseX, baseY);
+	}
+
+	private static int min(int a, int b) {
+		return a == -1 || (b != -1 && b < a) ? b : a;
+	}
+
+	private int get(int x, int y) {
+		if (x < 0 || y < 0 || x >= SIZE || y >= SIZE) {
+			return -1;
+		}
+		final int i = x * SIZE + y;
+		return stamp[i] == generation ? dist[i] : -1;
+	}
+
+	private boolean begin(int[][] blocks, int baseX, int baseY, RSTile start) {
+		this.blocks = blocks;
+		this.baseX = baseX;
+		this.baseY = baseY;
+		this.start = start;
+		if (++generation == 0) {
+			Arrays.fill(stamp, 0);
+			generation = 1;
+		}
+		head = tail = 0;
+		final int x = start.getX() - baseX, y = start.getY() - baseY;
+		if (blocks == null || x < 0 || y < 0 || x >= SIZE || y >= SIZE) {
+			return false;
+		}
+		visit(x * SIZE + y, 0);
+		return true;
+	}
+
+	private void visit(int i, int d) {
+		stamp[i] = generation;
+		dist[i] = d;
+		queue[tail++] = i;
+	}
+
+	private void expand(int curr) {
+		final int x = curr / SIZE, y = curr % SIZE;
+		final int[][] blocks = this.blocks;
+		final int g = generation;
+		final int cost = dist[curr] + 1;
+		final int upper = SIZE - 1;
+		// south
+		if (y > 0 && stamp[curr - 1] != g
+				&& (blocks[x + 1][y] & 0x1280102) == 0) {
+			visit(curr - 1, cost);
+		}
+		// west
+		if (x > 0 && stamp[curr - SIZE] != g
+				&& (blocks[x][y + 1] & 0x1280108) == 0) {
+			visit(curr - SIZE, cost);
+		}
+		// north
+		if (y < upper && stamp[curr + 1] != g
+				&& (blocks[x + 1][y + 2] & 0x1280120) == 0) {
+			visit(curr + 1, cost);
+		}
+		// east
+		if (x < upper && stamp[curr + SIZE] != g
+				&& (blocks[x + 2][y + 1] & 0x1280180) == 0) {
+			visit(curr + SIZE, cost);
+		}
+		// south west
+		if (x > 0 && y > 0 && stamp[curr - SIZE - 1] != g
+				&& (blocks[x][y] & 0x128010e) == 0
+				&& (blocks[x][y + 1] & 0x1280108) == 0
+				&& (blocks[x + 1][y] & 0x1280102) == 0) {
+			visit(curr - SIZE - 1, cost);
+		}
+		// north west
+		if (x > 0 && y < upper && stamp[curr - SIZE + 1] != g
+				&& (blocks[x][y + 2] & 0x1280138) == 0
+				&& (blocks[x][y + 1] & 0x1280108) == 0
+				&& (blocks[x + 1][y + 2] & 0x1280120) == 0) {
+			visit(curr - SIZE + 1, cost);
+		}
+		// south east
+		if (x < upper && y > 0 && stamp[curr + SIZE - 1] != g
+				&& (blocks[x + 2][y] & 0x1280183) == 0
+				&& (blocks[x + 2][y + 1] & 0x1280180) == 0
+				&& (blocks[x + 1][y] & 0x1280102) == 0) {
+			visit(curr + SIZE - 1, cost);
+		}
+		// north east
+		if (x < upper && y < upper && stamp[curr + SIZE + 1] != g
+				&& (blocks[x + 2][y + 2] & 0x12801e0) == 0
+				&& (blocks[x + 2][y + 1] & 0x1280180) == 0
+				&& (blocks[x + 1][y + 2] & 0x1280120) == 0) {
+			visit(curr + SIZE + 1, cost);
+		}
+	}
+
+}
@@ -13,6 +13,8 @@ class RSCharacterModel extends RSModel {
 
 	private final int[] x_base, z_base;
 
+	private int theta = -1, cycle;
+
 	RSCharacterModel(MethodContext ctx, Model model, org.rsbot.client.RSCharacter c) {
 		super(ctx, model);
 		this.c = c;
@@ -30,9 +32,19 @@ class RSCharacterModel extends RSModel {
 	 * [cos(t), 0, sin(t)
 	 * 0, 1, 0
 	 * -sin(t), 0, cos(t)]
+	 * <p/>
+	 * The base points are the client's own arrays, which it animates in
+	 * place, so they are rotated again every game cycle as well as whenever
+	 * the orientation changes.
 	 */
 	protected void update() {
 		int theta = c.getOrientation() & 0x3fff;
+		int cycle = methods.client.getLoopCycle();
+		if (theta == this.theta && cycle == this.cycle) {
+			return;
+		}
+		this.theta = theta;
+		this.cycle = cycle;
 		int sin = Calculations.SIN_TABLE[theta];
 		int cos = Calculations.COS_TABLE[theta];
 		for (int i = 0; i < x_base.length; ++i) {
@@ -42,6 +54,7 @@ class RSCharacterModel extends RSModel {
 			xPoints[i] = x_base[i] * cos + z_base[i] * sin >> 15;
 			zPoints[i] = z_base[i] * cos - x_base[i] * sin >> 15;
 		}
+		invalidate();
 	}
 
 	@Override
@@ -1,7 +1,5 @@
 package org.rsbot.script.wrappers;
 
-import org.rsbot.client.HardReference;
-import org.rsbot.client.SoftReference;
 import org.rsbot.script.methods.MethodContext;
 import org.rsbot.script.methods.MethodProvider;
 
@@ -41,20 +39,7 @@ public class RSItem extends MethodProvider {
 	 */
 	public RSItemDef getDefinition() {
 		try {
-			org.rsbot.client.Node ref = methods.nodes.lookup(methods.client.getRSItemDefLoader(), id);
-
-			if (ref != null) {
-				if (ref instanceof HardReference) {
-					return new RSItemDef((org.rsbot.client.RSItemDef) (((HardReference) ref).get()));
-				} else if (ref instanceof SoftReference) {
-					Object def = ((SoftReference) ref).getReference().get();
-
-					if (def != null) {
-						return new RSItemDef((org.rsbot.client.RSItemDef) def);
-					}
-				}
-			}
-			return null;
+			return methods.definitions.getItem(id);
 		} catch (final ClassCastException e) {
 			return null;
 		}
@@ -1,29 +1,37 @@
 package org.rsbot.script.wrappers;
 
+import org.rsbot.script.methods.Definitions;
+
 /**
  * An item definition.
  */
 public class RSItemDef {
-	private final org.rsbot.client.RSItemDef id;
+	private final String name;
+	private final String[] actions;
+	private final String[] groundActions;
+	private final boolean members;
 
 	public RSItemDef(final org.rsbot.client.RSItemDef id) {
-		this.id = id;
+		name = Definitions.intern(id.getName());
+		actions = Definitions.intern(id.getActions());
+		groundActions = Definitions.intern(id.getGroundActions());
+		members = id.isMembersObject();
 	}
 
 	public String[] getActions() {
-		return id.getActions();
+		return actions;
 	}
 
 	public String[] getGroundActions() {
-		return id.getGroundActions();
+		return groundActions;
 	}
 
 	public String getName() {
-		return id.getName();
+		return name;
 	}
 
 	public boolean isMembers() {
-		return id.isMembersObject();
+		return members;
 	}
 
 }
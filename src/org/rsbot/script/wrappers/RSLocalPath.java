@@ -2,7 +2,7 @@ package org.rsbot.script.wrappers;
 
 import org.rsbot.script.methods.MethodContext;
 
-import java.util.*;
+import java.util.EnumSet;
 
 /**
  * @author Jacmob
@@ -167,41 +167,16 @@ public class RSLocalPath extends RSPath {
 			}
 		}
 
-		// structs
-		HashSet<Node> open = new HashSet<Node>();
-		HashSet<Node> closed = new HashSet<Node>();
-		Node curr = new Node(curr_x, curr_y);
-		Node dest = new Node(dest_x, dest_y);
-
-		curr.f = heuristic(curr, dest);
-		open.add(curr);
-
 		// search
-		while (!open.isEmpty()) {
-			curr = lowest_f(open);
-			if (curr.equals(dest)) {
-				// reconstruct from pred tree
-				return path(curr, base_x, base_y);
-			}
-			open.remove(curr);
-			closed.add(curr);
-			for (Node next : successors(curr)) {
-				if (!closed.contains(next)) {
-					double t = curr.g + dist(curr, next);
-					boolean use_t = false;
-					if (!open.contains(next)) {
-						open.add(next);
-						use_t = true;
-					} else if (t < next.g) {
-						use_t = true;
-					}
-					if (use_t) {
-						next.prev = curr;
-						next.g = t;
-						next.f = t + heuristic(next, dest);
-					}
-				}
+		int[] nodes = methods.walking.getPathFinder().findPath(flags,
+				curr_x - offX, curr_y - offY, dest_x - offX, dest_y - offY);
+		if (nodes != null) {
+			RSTile[] path = new RSTile[nodes.length];
+			for (int i = 0; i < nodes.length; ++i) {
+				int node = nodes[i];
+				path[i] = new RSTile(node / flags.length + offX + base_x, node % flags.length + offY + base_y);
 			}
+			return path;
 		}
 
 		// no path
@@ -227,92 +202,4 @@ public class RSLocalPath extends RSPath {
 		return new RSTile(x, y);
 	}
 
-	private double heuristic(Node start, Node end) {
-		double dx = start.x - end.x;
-		double dy = start.y - end.y;
-		if (dx < 0) {
-			dx = -dx;
-		}
-		if (dy < 0) {
-			dy = -dy;
-		}
-		return dx < dy ? dy : dx;
-		//double diagonal = dx > dy ? dy : dx;
-		//double manhattan = dx + dy;
-		//return 1.41421356 * diagonal + (manhattan - 2 * diagonal);
-	}
-
-	private double dist(Node start, Node end) {
-		if (start.x != end.x && start.y != end.y) {
-			return 1.41421356;
-		} else {
-			return 1.0;
-		}
-	}
-
-	private Node lowest_f(Set<Node> open) {
-		Node best = null;
-		for (Node t : open) {
-			if (best == null || t.f < best.f) {
-				best = t;
-			}
-		}
-		return best;
-	}
-
-	private RSTile[] path(Node end, int base_x, int base_y) {
-		LinkedList<RSTile> path = new LinkedList<RSTile>();
-		Node p = end;
-		while (p != null) {
-			path.addFirst(p.toRSTile(base_x, base_y));
-			p = p.prev;
-		}
-		return path.toArray(new RSTile[path.size()]);
-	}
-
-	private List<Node> successors(Node t) {
-		LinkedList<Node> tiles = new LinkedList<Node>();
-		int x = t.x, y = t.y;
-		int f_x = x - offX, f_y = y - offY;
-		int here = flags[f_x][f_y];
-		int upper = flags.length - 1;
-		if (f_y > 0 && (here & WALL_SOUTH) == 0 && (flags[f_x][f_y - 1] & BLOCKED) == 0) {
-			tiles.add(new Node(x, y - 1));
-		}
-		if (f_x > 0 && (here & WALL_WEST) == 0 && (flags[f_x - 1][f_y] & BLOCKED) == 0) {
-			tiles.add(new Node(x - 1, y));
-		}
-		if (f_y < upper && (here & WALL_NORTH) == 0 && (flags[f_x][f_y + 1] & BLOCKED) == 0) {
-			tiles.add(new Node(x, y + 1));
-		}
-		if (f_x < upper && (here & WALL_EAST) == 0 && (flags[f_x + 1][f_y] & BLOCKED) == 0) {
-			tiles.add(new Node(x + 1, y));
-		}
-		if (f_x > 0 && f_y > 0 && (here & (WALL_SOUTH_WEST | WALL_SOUTH | WALL_WEST)) == 0
-				&& (flags[f_x - 1][f_y - 1] & BLOCKED) == 0
-				&& (flags[f_x][f_y - 1] & (BLOCKED | WALL_WEST)) == 0
-				&& (flags[f_x - 1][f_y] & (BLOCKED | WALL_SOUTH)) == 0) {
-			tiles.add(new Node(x - 1, y - 1));
-		}
-		if (f_x > 0 && f_y < upper && (here & (WALL_NORTH_WEST | WALL_NORTH | WALL_WEST)) == 0
-				&& (flags[f_x - 1][f_y + 1] & BLOCKED) == 0
-				&& (flags[f_x][f_y + 1] & (BLOCKED | WALL_WEST)) == 0
-				&& (flags[f_x - 1][f_y] & (BLOCKED | WALL_NORTH)) == 0) {
-			tiles.add(new Node(x - 1, y + 1));
-		}
-		if (f_x < upper && f_y > 0 && (here & (WALL_SOUTH_EAST | WALL_SOUTH | WALL_EAST)) == 0
-				&& (flags[f_x + 1][f_y - 1] & BLOCKED) == 0
-				&& (flags[f_x][f_y - 1] & (BLOCKED | WALL_EAST)) == 0
-				&& (flags[f_x + 1][f_y] & (BLOCKED | WALL_SOUTH)) == 0) {
-			tiles.add(new Node(x + 1, y - 1));
-		}
-		if (f_x > 0 && f_y < upper && (here & (WALL_NORTH_EAST | WALL_NORTH | WALL_EAST)) == 0
-				&& (flags[f_x + 1][f_y + 1] & BLOCKED) == 0
-				&& (flags[f_x][f_y + 1] & (BLOCKED | WALL_EAST)) == 0
-				&& (flags[f_x + 1][f_y] & (BLOCKED | WALL_NORTH)) == 0) {
-			tiles.add(new Node(x + 1, y + 1));
-		}
-		return tiles;
-	}
-
 }
@@ -3,12 +3,12 @@ package org.rsbot.script.wrappers;
 import org.rsbot.client.Model;
 import org.rsbot.script.methods.MethodContext;
 import org.rsbot.script.methods.MethodProvider;
+import org.rsbot.script.methods.Viewport;
 import org.rsbot.script.util.Filter;
 
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 
 /**
  * A screen space model.
@@ -40,6 +40,18 @@ public abstract class RSModel extends MethodProvider {
 	protected short[] indices2;
 	protected short[] indices3;
 
+	/**
+	 * The number of vertices used by the triangles.
+	 */
+	private final int vertexCount;
+
+	/**
+	 * The screen location of each vertex; or -1 if it is off screen.
+	 */
+	private int[] screenX, screenY;
+	private boolean projected;
+	private int projectedVersion, projectedCycle, projectedX, projectedY, projectedHeight;
+
 	public RSModel(MethodContext ctx, Model model) {
 		super(ctx);
 		xPoints = model.getXPoints();
@@ -48,30 +60,47 @@ public abstract class RSModel extends MethodProvider {
 		indices1 = model.getIndices1();
 		indices2 = model.getIndices2();
 		indices3 = model.getIndices3();
+		int count = 0;
+		for (short[] indices : new short[][]{indices1, indices2, indices3}) {
+			for (short i : indices) {
+				count = Math.max(count, i + 1);
+			}
+		}
+		vertexCount = count;
 	}
 
 	protected abstract int getLocalX();
 
 	protected abstract int getLocalY();
 
+	/**
+	 * Brings the points of this model up to date, calling
+	 * {@link #invalidate()} if they changed.
+	 */
 	protected abstract void update();
 
+	/**
+	 * Discards the projected points of this model, for when its points have
+	 * changed.
+	 */
+	protected void invalidate() {
+		projected = false;
+	}
+
 	/**
 	 * @param p A point on the screen
 	 * @return true of the point is within the bounds of the model
 	 */
-	private boolean contains(Point p) {
-		if (this == null) {
-			return false;
-		}
-
-		Polygon[] triangles = this.getTriangles();
-		for (Polygon poly : triangles) {
-			if (poly.contains(p)) {
+	private synchronized boolean contains(Point p) {
+		project();
+		for (int i = 0; i < indices1.length; ++i) {
+			int a = indices1[i], b = indices2[i], c = indices3[i];
+			if (screenX[a] >= 0 && screenX[b] >= 0 && screenX[c] >= 0
+					&& triangleContains(screenX[a], screenY[a], screenX[b], screenY[b],
+					screenX[c], screenY[c], p.x, p.y)) {
 				return true;
 			}
 		}
-
 		return false;
 	}
 
@@ -125,8 +154,8 @@ public abstract class RSModel extends MethodProvider {
 	 * @see #getCentralPoint()
 	 * @see #getPointOnScreen()
 	 */
-	public Point getPoint() {
-		update();
+	public synchronized Point getPoint() {
+		project();
 		int len = indices1.length;
 		int sever = random(0, len);
 		Point point = getPointInRange(sever, len);
@@ -146,19 +175,17 @@ public abstract class RSModel extends MethodProvider {
 	 * @return All the points that are on the screen, if the model is not on the
 	 *         screen it will return null.
 	 */
-	public Point[] getPoints() {
-		if (this == null) {
-			return null;
-		}
-		Polygon[] polys = getTriangles();
-		Point[] points = new Point[polys.length * 3];
-		int index = 0;
-		for (Polygon poly : polys) {
-			for (int i = 0; i < 3; i++) {
-				points[index++] = new Point(poly.xpoints[i], poly.ypoints[i]);
+	public synchronized Point[] getPoints() {
+		project();
+		ArrayList<Point> points = new ArrayList<Point>();
+		for (int i = 0; i < indices1.length; ++i) {
+			if (isVisible(i)) {
+				points.add(new Point(screenX[indices1[i]], screenY[indices1[i]]));
+				points.add(new Point(screenX[indices2[i]], screenY[indices2[i]]));
+				points.add(new Point(screenX[indices3[i]], screenY[indices3[i]]));
 			}
 		}
-		return points;
+		return points.toArray(new Point[points.size()]);
 	}
 
 	/**
@@ -167,21 +194,22 @@ public abstract class RSModel extends MethodProvider {
 	 * @return First point that it finds on screen else a random point on screen
 	 *         of an object.
 	 */
-	public Point getPointOnScreen() {
+	public synchronized Point getPointOnScreen() {
+		project();
 		ArrayList<Point> list = new ArrayList<Point>();
-		try {
-			Polygon[] tris = getTriangles();
-			for (Polygon p : tris) {
-				for (int j = 0; j < p.xpoints.length; j++) {
-					Point firstPoint = new Point(p.xpoints[j], p.ypoints[j]);
-					if (methods.calc.pointOnScreen(firstPoint)) {
-						return firstPoint;
-					} else {
-						list.add(firstPoint);
-					}
+		Point p = new Point();
+		for (int i = 0; i < indices1.length; ++i) {
+			if (!isVisible(i)) {
+				continue;
+			}
+			for (int corner = 0; corner < 3; ++corner) {
+				int v = vertex(i, corner);
+				p.setLocation(screenX[v], screenY[v]);
+				if (methods.calc.pointOnScreen(p)) {
+					return p;
 				}
+				list.add(new Point(p));
 			}
-		} catch (Exception ignored) {
 		}
 		return list.size() > 0 ? list.get(random(0, list.size())) : null;
 	}
@@ -194,41 +222,101 @@ public abstract class RSModel extends MethodProvider {
 	 * @return The rough central point.
 	 * @author !@!@!
 	 */
-	public Point getCentralPoint() {
-		try {
-			/* Add X and Y of all points, to get a rough central point */
-			int x = 0, y = 0, total = 0;
-			for (Polygon poly : getTriangles()) {
-				for (int i = 0; i < poly.npoints; i++) {
-					x += poly.xpoints[i];
-					y += poly.ypoints[i];
-					total++;
+	public synchronized Point getCentralPoint() {
+		project();
+		/* Add X and Y of all points, to get a rough central point */
+		long x = 0, y = 0;
+		int total = 0;
+		for (int i = 0; i < indices1.length; ++i) {
+			if (isVisible(i)) {
+				x += screenX[indices1[i]] + screenX[indices2[i]] + screenX[indices3[i]];
+				y += screenY[indices1[i]] + screenY[indices2[i]] + screenY[indices3[i]];
+				total += 3;
+			}
+		}
+		if (total == 0) {
+			return new Point(-1, -1);
+		}
+		Point central = new Point((int) (x / total), (int) (y / total));
+		/*
+		 * Find a real point on the character that is closest to the central
+		 * point, looking at each vertex once
+		 */
+		boolean[] checked = new boolean[vertexCount];
+		Point curCentral = null;
+		double dist = 20000;
+		Point p = new Point();
+		for (int i = 0; i < indices1.length; ++i) {
+			if (!isVisible(i)) {
+				continue;
+			}
+			for (int corner = 0; corner < 3; ++corner) {
+				int v = vertex(i, corner);
+				if (checked[v]) {
+					continue;
+				}
+				checked[v] = true;
+				p.setLocation(screenX[v], screenY[v]);
+				if (!methods.calc.pointOnScreen(p)) {
+					continue;
+				}
+				double dist2 = methods.calc.distanceBetween(central, p);
+				if (curCentral == null || dist2 < dist) {
+					curCentral = new Point(p);
+					dist = dist2;
 				}
 			}
-			Point central = new Point(x / total, y / total);
-			/*
-							* Find a real point on the character that is closest to the central
-							* point
-							*/
-			Point curCentral = null;
-			double dist = 20000;
-			for (Polygon poly : getTriangles()) {
-				for (int i = 0; i < poly.npoints; i++) {
-					Point p = new Point(poly.xpoints[i], poly.ypoints[i]);
-					if (!methods.calc.pointOnScreen(p)) {
-						continue;
-					}
-					double dist2 = methods.calc.distanceBetween(central, p);
-					if (curCentral == null || dist2 < dist) {
-						curCentral = p;
-						dist = dist2;
-					}
+		}
+		return curCentral;
+	}
+
+	/**
+	 * Returns the convex hull of the on screen triangles of this model.
+	 *
+	 * @return The outline of this model on screen; with no points if the
+	 *         model is not on screen.
+	 */
+	public synchronized Polygon getConvexHull() {
+		project();
+		boolean[] used = new boolean[vertexCount];
+		long[] points = new long[vertexCount];
+		int n = 0;
+		for (int i = 0; i < indices1.length; ++i) {
+			if (!isVisible(i)) {
+				continue;
+			}
+			for (int corner = 0; corner < 3; ++corner) {
+				int v = vertex(i, corner);
+				if (!used[v]) {
+					used[v] = true;
+					points[n++] = (long) screenX[v] << 32 | screenY[v];
 				}
 			}
-			return curCentral;
-		} catch (Exception ignored) {
 		}
-		return new Point(-1, -1);
+		// monotone chain over the points sorted by x, then y
+		Arrays.sort(points, 0, n);
+		int[] hullX = new int[2 * n + 1], hullY = new int[2 * n + 1];
+		int k = 0;
+		for (int i = 0; i < n; ++i) {
+			int px = (int) (points[i] >> 32), py = (int) points[i];
+			while (k >= 2 && cross(hullX[k - 2], hullY[k - 2], hullX[k - 1], hullY[k - 1], px, py) <= 0) {
+				--k;
+			}
+			hullX[k] = px;
+			hullY[k++] = py;
+		}
+		for (int i = n - 2, lower = k + 1; i >= 0; --i) {
+			int px = (int) (points[i] >> 32), py = (int) points[i];
+			while (k >= lower && cross(hullX[k - 2], hullY[k - 2], hullX[k - 1], hullY[k - 1], px, py) <= 0) {
+				--k;
+			}
+			hullX[k] = px;
+			hullY[k++] = py;
+		}
+		if (k > 1) {
+			--k;
+		}
+		return new Polygon(hullX, hullY, k);
 	}
 
 	/**
@@ -236,25 +324,14 @@ public abstract class RSModel extends MethodProvider {
 	 *
 	 * @return The on screen triangles of this model.
 	 */
-	public Polygon[] getTriangles() {
-		update();
-		LinkedList<Polygon> polygons = new LinkedList<Polygon>();
-		int locX = getLocalX();
-		int locY = getLocalY();
-		int len = indices1.length;
-		int height = methods.calc.tileHeight(locX, locY);
-		for (int i = 0; i < len; ++i) {
-			Point one = methods.calc.worldToScreen(locX + xPoints[indices1[i]],
-					locY + zPoints[indices1[i]], height + yPoints[indices1[i]]);
-			Point two = methods.calc.worldToScreen(locX + xPoints[indices2[i]],
-					locY + zPoints[indices2[i]], height + yPoints[indices2[i]]);
-			Point three = methods.calc.worldToScreen(locX
-					+ xPoints[indices3[i]], locY + zPoints[indices3[i]], height
-					+ yPoints[indices3[i]]);
-
-			if (one.x >= 0 && two.x >= 0 && three.x >= 0) {
-				polygons.add(new Polygon(new int[]{one.x, two.x, three.x},
-						new int[]{one.y, two.y, three.y}, 3));
+	public synchronized Polygon[] getTriangles() {
+		project();
+		ArrayList<Polygon> polygons = new ArrayList<Polygon>(indices1.length);
+		for (int i = 0; i < indices1.length; ++i) {
+			if (isVisible(i)) {
+				int a = indices1[i], b = indices2[i], c = indices3[i];
+				polygons.add(new Polygon(new int[]{screenX[a], screenX[b], screenX[c]},
+						new int[]{screenY[a], screenY[b], screenY[c]}, 3));
 			}
 		}
 		return polygons.toArray(new Polygon[polygons.size()]);
@@ -287,39 +364,61 @@ public abstract class RSModel extends MethodProvider {
 		return false;
 	}
 
-	private Point getPointInRange(int start, int end) {
+	/**
+	 * Projects every vertex of this model onto the screen, unless they have
+	 * already been projected through the current viewport at this game cycle
+	 * and location.
+	 */
+	private void project() {
+		update();
+		Viewport viewport = methods.calc.getViewport();
+		int cycle = methods.client.getLoopCycle();
 		int locX = getLocalX();
 		int locY = getLocalY();
 		int height = methods.calc.tileHeight(locX, locY);
+		if (projected && viewport.getVersion() == projectedVersion && cycle == projectedCycle
+				&& locX == projectedX && locY == projectedY && height == projectedHeight) {
+			return;
+		}
+		if (screenX == null) {
+			screenX = new int[vertexCount];
+			screenY = new int[vertexCount];
+		}
+		viewport.worldToScreen(locX, locY, height, xPoints, zPoints, yPoints,
+				vertexCount, screenX, screenY);
+		projected = true;
+		projectedVersion = viewport.getVersion();
+		projectedCycle = cycle;
+		projectedX = locX;
+		projectedY = locY;
+		projectedHeight = height;
+	}
+
+	private int vertex(int triangle, int corner) {
+		return corner == 0 ? indices1[triangle] : corner == 1 ? indices2[triangle] : indices3[triangle];
+	}
+
+	/**
+	 * Whether all three vertices of a triangle are on screen.
+	 */
+	private boolean isVisible(int triangle) {
+		return screenX[indices1[triangle]] >= 0 && screenX[indices2[triangle]] >= 0
+				&& screenX[indices3[triangle]] >= 0;
+	}
+
+	private Point getPointInRange(int start, int end) {
 		for (int i = start; i < end; ++i) {
-			Point one = methods.calc.worldToScreen(locX + xPoints[indices1[i]],
-					locY + zPoints[indices1[i]], height + yPoints[indices1[i]]);
 			int x = -1, y = -1;
-			if (one.x >= 0) {
-				x = one.x;
-				y = one.y;
-			}
-			Point two = methods.calc.worldToScreen(locX + xPoints[indices2[i]],
-					locY + zPoints[indices2[i]], height + yPoints[indices2[i]]);
-			if (two.x >= 0) {
-				if (x >= 0) {
-					x = (x + two.x) / 2;
-					y = (y + two.y) / 2;
-				} else {
-					x = two.x;
-					y = two.y;
-				}
-			}
-			Point three = methods.calc.worldToScreen(locX
-					+ xPoints[indices3[i]], locY + zPoints[indices3[i]], height
-					+ yPoints[indices3[i]]);
-			if (three.x >= 0) {
-				if (x >= 0) {
-					x = (x + three.x) / 2;
-					y = (y + three.y) / 2;
-				} else {
-					x = three.x;
-					y = three.y;
+			for (int corner = 0; corner < 3; ++corner) {
+				int v = vertex(i, corner);
+				if (screenX[v] >= 0) {
+					if (x >= 0) {
+						x = (x + screenX[v]) / 2;
+						y = (y + screenY[v]) / 2;
+					} else {
+						x = screenX[v];
+						y = screenY[v];
+					}
 				}
 			}
 			if (x >= 0) {
@@ -329,4 +428,36 @@ public abstract class RSModel extends MethodProvider {
 		return null;
 	}
 
-}
\ No newline at end of file
+	private static long cross(int ox, int oy, int ax, int ay, int bx, int by) {
+		return (long) (ax - ox) * (by - oy) - (long) (ay - oy) * (bx - ox);
+	}
+
+	/**
+	 * Whether a triangle contains a point, by the same rule as
+	 * <code>Polygon.contains</code>: degenerate triangles contain nothing,
+	 * and points on an edge are inside only if the triangle lies to their
+	 * right, or below them on a horizontal edge.
+	 */
+	private static boolean triangleContains(int ax, int ay, int bx, int by, int cx, int cy, int px, int py) {
+		final long area = cross(ax, ay, bx, by, cx, cy);
+		if (area == 0) {
+			return false;
+		}
+		if (area < 0) {
+			return edgeContains(ax, ay, cx, cy, px, py) && edgeContains(cx, cy, bx, by, px, py)
+					&& edgeContains(bx, by, ax, ay, px, py);
+		}
+		return edgeContains(ax, ay, bx, by, px, py) && edgeContains(bx, by, cx, cy, px, py)
+				&& edgeContains(cx, cy, ax, ay, px, py);
+	}
+
+	/**
+	 * Whether a point is on the inner side of an edge of a triangle with
+	 * positive winding.
+	 */
+	private static boolean edgeContains(int sx, int sy, int ex, int ey, int px, int py) {
+		final long d = cross(sx, sy, ex, ey, px, py);
+		return d > 0 || (d == 0 && (ey < sy || (ey == sy && ex > sx)));
+	}
+
+}
@@ -29,6 +29,15 @@ public class RSNPC extends RSCharacter {
 		return new String[0];
 	}
 
+	/**
+	 * Gets the definition of this NPC.
+	 *
+	 * @return The definition; or <tt>null</tt> if unavailable.
+	 */
+	public RSNPCDef getDef() {
+		return methods.definitions.getNPC(getDefInternal());
+	}
+
 	public int getID() {
 		org.rsbot.client.RSNPCDef def = getDefInternal();
 		if (def != null) {
@@ -48,7 +57,7 @@ public class RSNPC extends RSCharacter {
 
 	@Override
 	public int getLevel() {
-		org.rsbot.client.RSNPC c = npc.get();
+		org.rsbot.client.RSNPC c = (org.rsbot.client.RSNPC) getAccessor();
 		if (c == null) {
 			return -1;
 		} else {
@@ -83,7 +92,7 @@ public class RSNPC extends RSCharacter {
 	}
 
 	org.rsbot.client.RSNPCDef getDefInternal() {
-		org.rsbot.client.RSNPC c = npc.get();
+		org.rsbot.client.RSNPC c = (org.rsbot.client.RSNPC) getAccessor();
 		if (c == null) {
 			return null;
 		} else {
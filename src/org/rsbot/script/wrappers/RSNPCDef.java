@@ -0,0 +1,31 @@
+package org.rsbot.script.wrappers;
+
+import org.rsbot.script.methods.Definitions;
+
+/**
+ * An NPC definition.
+ */
+public class RSNPCDef {
+	private final int id;
+	private final String name;
+	private final String[] actions;
+
+	public RSNPCDef(final org.rsbot.client.RSNPCDef def) {
+		id = def.getType();
+		name = Definitions.intern(def.getName());
+		actions = Definitions.intern(def.getActions());
+	}
+
+	public String[] getActions() {
+		return actions;
+	}
+
+	public int getID() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+}
@@ -64,22 +64,7 @@ public class RSObject extends MethodProvider {
 	 * @return The RSObjectDef if available, otherwise <code>null</code>.
 	 */
 	public RSObjectDef getDef() {
-		org.rsbot.client.Node ref = methods.nodes.lookup(
-				methods.client.getRSObjectDefLoader(), getID());
-		if (ref != null) {
-			if (ref instanceof org.rsbot.client.HardReference) {
-				return new RSObjectDef(
-						(org.rsbot.client.RSObjectDef) (((org.rsbot.client.HardReference) ref)
-								.get()));
-			} else if (ref instanceof org.rsbot.client.SoftReference) {
-				Object def = ((org.rsbot.client.SoftReference) ref)
-						.getReference().get();
-				if (def != null) {
-					return new RSObjectDef((org.rsbot.client.RSObjectDef) def);
-				}
-			}
-		}
-		return null;
+		return methods.definitions.getObject(getID());
 	}
 
 	/**
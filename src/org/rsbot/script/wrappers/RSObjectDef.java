@@ -1,30 +1,41 @@
 package org.rsbot.script.wrappers;
 
+import org.rsbot.script.methods.Definitions;
+
 /**
  * An object definition.
  */
 public class RSObjectDef {
-	private final org.rsbot.client.RSObjectDef od;
+	private final int id;
+	private final String name;
+	private final String[] actions;
+	private final int[] childIDs;
 
 	public RSObjectDef(final org.rsbot.client.RSObjectDef od) {
-		this.od = od;
+		this(-1, od);
+	}
+
+	public RSObjectDef(final int id, final org.rsbot.client.RSObjectDef od) {
+		this.id = id;
+		name = Definitions.intern(od.getName());
+		actions = Definitions.intern(od.getActions());
+		childIDs = od.getChildrenIDs();
 	}
 
 	public String[] getActions() {
-		return od.getActions();
+		return actions;
 	}
 
 	public int[] getChildIDs() {
-		return od.getChildrenIDs();
+		return childIDs;
 	}
 
 	public int getID() {
-		// return od.getType();
-		return -1;
+		return id;
 	}
 
 	public String getName() {
-		return od.getName();
+		return name;
 	}
 
 }
@@ -22,21 +22,25 @@ public class RSPlayer extends RSCharacter {
 		return p.get();
 	}
 
+	private org.rsbot.client.RSPlayer getPlayer() {
+		return (org.rsbot.client.RSPlayer) getAccessor();
+	}
+
 	public int getCombatLevel() {
-		return p.get().getLevel();
+		return getPlayer().getLevel();
 	}
 
 	@Override
 	public String getName() {
-		return p.get().getName();
+		return getPlayer().getName();
 	}
 
 	public int getTeam() {
-		return p.get().getTeam();
+		return getPlayer().getTeam();
 	}
 
 	public int getNPCID() {
-		RSPlayerComposite comp = p.get().getComposite();
+		RSPlayerComposite comp = getPlayer().getComposite();
 		if (comp != null) {
 			return comp.getNPCID();
 		}
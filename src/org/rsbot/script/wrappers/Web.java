@@ -1,11 +1,9 @@
 package org.rsbot.script.wrappers;
 
 import org.rsbot.script.methods.MethodContext;
-import org.rsbot.util.GlobalConfiguration;
 
-import java.io.*;
-import java.util.*;
-import java.util.logging.Logger;
+import java.util.Arrays;
+import java.util.EnumSet;
 
 /**
  * The web generation and wrapper control.
@@ -51,82 +49,11 @@ public class Web extends WebSkeleton {
 		return map == null;
 	}
 
-	private final Logger log = Logger.getLogger(Web.class.getName());
-
 	/**
 	 * Sets the map up.
 	 */
 	public void setMap() {
-		try {
-			List<WebTile> teTiles = new ArrayList<WebTile>();
-			File mapData = new File(GlobalConfiguration.Paths.getWebCache());
-			if (mapData.exists() && mapData.canRead()) {
-				final int xOff = 2045;
-				final int yOff = 4168;
-				FileInputStream fis = new FileInputStream(mapData);
-				DataInputStream dis = new DataInputStream(fis);
-				BufferedReader br = new BufferedReader(new InputStreamReader(dis));
-				String strLine = "";
-				while ((strLine = br.readLine()) != null) {
-					try {
-						String[] strArr = strLine.split("=");
-						if (strArr != null && strArr.length == 3) {
-							String[] spl = strArr[2].split(",");
-							int[] nA = new int[spl.length];
-							int i = 0;
-							for (String iSPL : spl) {
-								if (iSPL.length() > 0) {
-									nA[i] = Integer.parseInt(iSPL);
-									i++;
-								}
-							}
-							int[] nAA = new int[i];
-							for (int na : nA) {
-								i--;
-								nAA[i] = na;
-								if (i == 0) {
-									break;
-								}
-							}
-							teTiles.add(new WebTile(new RSTile(xOff + Integer
-									.parseInt(strArr[0]), yOff - Integer
-									.parseInt(strArr[1])), nAA, null));
-						} else if (strArr != null && strArr.length == 5) {
-							String[] spl = strArr[4].split(",");
-							int[] nA = new int[spl.length];
-							int i = 0;
-							for (String iSPL : spl) {
-								if (iSPL.length() > 0) {
-									nA[i] = Integer.parseInt(iSPL);
-									i++;
-								}
-							}
-							int[] nAA = new int[i];
-							for (int na : nA) {
-								i--;
-								nAA[i] = na;
-								if (i == 0) {
-									break;
-								}
-							}
-							teTiles.add(new WebTile(new RSTile(xOff + Integer
-									.parseInt(strArr[0]), yOff - Integer
-									.parseInt(strArr[1])), nAA, null));
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						map = null;
-						return;
-					}
-				}
-				map = new WebMap(teTiles.toArray(new WebTile[teTiles.size()]));
-				br.close();
-				return;
-			}
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-		map = null;
+		map = WebMap.load();
 	}
 
 	/**
@@ -153,77 +80,29 @@ public class Web extends WebSkeleton {
 				path = null;
 				return;
 			}
-			WebTile start = map.getWebTile(from);
-			WebTile end = map.getWebTile(to);
-			if (start == null || end == null) {
+			int start = map.getWebTileIndex(from);
+			int end = map.getWebTileIndex(to);
+			if (start == -1 || end == -1) {
 				path = null;
 				return;
 			}
-			if (start.equals(end)) {
-				path = new WebPath(methods, new WebTile[]{end});
+			WebTile[] tiles = map.getTiles();
+			if (tiles[start].equals(tiles[end])) {
+				path = new WebPath(methods, new WebTile[]{tiles[end]});
 				return;
 			}
-			HashSet<WebTile> open = new HashSet<WebTile>();
-			HashSet<WebTile> closed = new HashSet<WebTile>();
-			WebTile curr = start;
-			WebTile dest = end;
-			curr.f = map.heuristic(curr, dest);
-			open.add(curr);
-			while (!open.isEmpty()) {
-				curr = lowest_f(open);
-				if (curr.equals(dest)) {
-					path = new WebPath(methods, path(curr));
-					return;
-				}
-				open.remove(curr);
-				closed.add(curr);
-				for (int iNext : curr.connectingIndex()) {
-					WebTile next = map.getWebTile(iNext);
-					if (next.req != null) {
-						if (!next.req.canDo()) {
-							continue;
-						}
-					}
-					if (!closed.contains(next)) {
-						double t = curr.g + map.dist(curr, next);
-						boolean use_t = false;
-						if (!open.contains(next)) {
-							open.add(next);
-							use_t = true;
-						} else if (t < next.g) {
-							use_t = true;
-						}
-						if (use_t) {
-							next.parent = curr;
-							next.g = t;
-							next.f = t + map.heuristic(next, dest);
-						}
-					}
-				}
+			long[] requirements = map.getRequirementState();
+			WebRouteCache cache = map.getRouteCache();
+			WebTile[] found = cache.get(start, end, requirements);
+			if (found == null) {
+				found = new Search(map).run(start, end);
+				cache.put(start, end, requirements, found);
 			}
-			path = null;
-			return;
+			path = found != null && found.length != 0 ? new WebPath(methods, found) : null;
 		} catch (Exception e) {
 			e.printStackTrace();
 			path = null;
-			return;
-		}
-	}
-
-	/**
-	 * Gets the lowest f score.
-	 *
-	 * @param open The set of web tiles.
-	 * @return The lowest f score tile.
-	 */
-	private WebTile lowest_f(Set<WebTile> open) {
-		WebTile best = null;
-		for (WebTile t : open) {
-			if (best == null || t.f < best.f) {
-				best = t;
-			}
 		}
-		return best;
 	}
 
 	/**
@@ -247,22 +126,6 @@ public class Web extends WebSkeleton {
 		return map;
 	}
 
-	/**
-	 * Reconstructs the path.
-	 *
-	 * @param end The final web tile.
-	 * @return The path.
-	 */
-	private WebTile[] path(WebTile end) {
-		LinkedList<RSTile> path = new LinkedList<RSTile>();
-		WebTile p = end;
-		while (p != null) {
-			path.addFirst(p);
-			p = p.parent;
-		}
-		return path.toArray(new WebTile[path.size()]);
-	}
-
 	/**
 	 * Gets the next start tile.
 	 *
@@ -291,4 +154,148 @@ public class Web extends WebSkeleton {
 		return getEnd() != null ? methods.calc.distanceTo(getEnd()) < 8 : false;
 	}
 
+	/**
+	 * The state of a single A* search over a web map. The map itself is
+	 * never written to, so any number of searches may run over the same map
+	 * at once.
+	 */
+	private static class Search {
+
+		private final WebMap map;
+		private final WebTile[] tiles;
+		private final double[] g;
+		private final double[] f;
+		private final int[] parent;
+		private final int[] heapIndex;
+		private final boolean[] closed;
+		private final int[] heap;
+		private int heapSize;
+		private WebTile dest;
+
+		Search(final WebMap map) {
+			this.map = map;
+			tiles = map.getTiles();
+			g = new double[tiles.length];
+			f = new double[tiles.length];
+			parent = new int[tiles.length];
+			heapIndex = new int[tiles.length];
+			closed = new boolean[tiles.length];
+			heap = new int[tiles.length];
+			Arrays.fill(heapIndex, -1);
+		}
+
+		/**
+		 * Finds the shortest path between two tiles of the map.
+		 *
+		 * @param start The index of the start tile.
+		 * @param end   The index of the end tile.
+		 * @return The path; or null if there is none.
+		 */
+		WebTile[] run(final int start, final int end) {
+			dest = tiles[end];
+			parent[start] = -1;
+			f[start] = map.heuristic(tiles[start], dest);
+			push(start);
+			while (heapSize != 0) {
+				final int curr = pop();
+				if (curr == end) {
+					return path(curr);
+				}
+				closed[curr] = true;
+				for (int next : tiles[curr].connectingIndex()) {
+					final WebTile tile = tiles[next];
+					if (tile.req != null && !tile.req.canDo()) {
+						continue;
+					}
+					if (closed[next]) {
+						continue;
+					}
+					final double t = g[curr] + map.dist(tiles[curr], tile);
+					final boolean open = heapIndex[next] != -1;
+					if (!open || t < g[next]) {
+						parent[next] = curr;
+						g[next] = t;
+						f[next] = t + map.heuristic(tile, dest);
+						if (open) {
+							up(heapIndex[next]);
+						} else {
+							push(next);
+						}
+					}
+				}
+			}
+			return null;
+		}
+
+		private WebTile[] path(final int end) {
+			int length = 0;
+			for (int p = end; p != -1; p = parent[p]) {
+				++length;
+			}
+			final WebTile[] path = new WebTile[length];
+			for (int p = end; p != -1; p = parent[p]) {
+				path[--length] = tiles[p];
+			}
+			return path;
+		}
+
+		private void push(final int node) {
+			heap[heapSize] = node;
+			heapIndex[node] = heapSize;
+			up(heapSize++);
+		}
+
+		private int pop() {
+			final int top = heap[0];
+			final int last = heap[--heapSize];
+			if (heapSize != 0) {
+				heap[0] = last;
+				heapIndex[last] = 0;
+				down(0);
+			}
+			heapIndex[top] = -1;
+			return top;
+		}
+
+		private void up(int i) {
+			final int node = heap[i];
+			final double key = f[node];
+			while (i > 0) {
+				final int p = (i - 1) >>> 1;
+				final int pn = heap[p];
+				if (f[pn] <= key) {
+					break;
+				}
+				heap[i] = pn;
+				heapIndex[pn] = i;
+				i = p;
+			}
+			heap[i] = node;
+			heapIndex[node] = i;
+		}
+
+		private void down(int i) {
+			final int node = heap[i];
+			final double key = f[node];
+			final int half = heapSize >>> 1;
+			while (i < half) {
+				int c = (i << 1) + 1;
+				final int r = c + 1;
+				if (r < heapSize && f[heap[r]] < f[heap[c]]) {
+					c = r;
+				}
+				final int cn = heap[c];
+				if (key <= f[cn]) {
+					break;
+				}
+				heap[i] = cn;
+				heapIndex[cn] = i;
+				i = c;
+			}
+			heap[i] = node;
+			heapIndex[node] = i;
+		}
+
+	}
+
 }
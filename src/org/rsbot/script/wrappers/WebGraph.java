@@ -0,0 +1,305 @@
+package org.rsbot.script.wrappers;
+
+import org.rsbot.util.GlobalConfiguration;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * The web walker graph in compact form. Node coordinates are packed into
+ * one int each, and adjacency is held in compressed sparse row form: the
+ * neighbours of node <tt>i</tt> are the edges from <tt>getEdgeStart(i)</tt>
+ * up to <tt>getEdgeEnd(i)</tt>.
+ * <p/>
+ * The graph is converted once from the text web data into a binary file
+ * which is memory mapped and shared by every bot in the process. Each
+ * version of the web data is converted to its own file, so a file that is
+ * mapped is never replaced.
+ *
+ * @author Timer
+ * @author Aut0r
+ */
+public class WebGraph {
+
+	private static final int MAGIC = 0x57454247;
+	private static final int HEADER = 16;
+
+	private static final int X_OFFSET = 2045;
+	private static final int Y_OFFSET = 4168;
+
+	private static final Logger log = Logger.getLogger(WebGraph.class.getName());
+
+	private static WebGraph shared;
+	private static long sharedModified, sharedLength;
+	private static long failedModified, failedLength;
+
+	private final IntBuffer coords;
+	private final IntBuffer offsets;
+	private final IntBuffer edges;
+	private final int size;
+
+	private WebGraph(ByteBuffer buffer) throws IOException {
+		final IntBuffer ints = buffer.asIntBuffer();
+		if (ints.get(0) != MAGIC) {
+			throw new IOException("Not a web graph");
+		}
+		size = ints.get(2);
+		final int edgeCount = ints.get(3);
+		if (size < 0 || edgeCount < 0 || ints.capacity() != HEADER / 4 + size + size + 1 + edgeCount) {
+			throw new IOException("Corrupt web graph");
+		}
+		coords = slice(ints, HEADER / 4, size);
+		offsets = slice(ints, HEADER / 4 + size, size + 1);
+		edges = slice(ints, HEADER / 4 + size + size + 1, edgeCount);
+	}
+
+	/**
+	 * Gets the graph for the downloaded web data, converting it if the
+	 * binary form is missing or out of date. The graph is only loaded once
+	 * per process unless the web data changes. If new web data cannot be
+	 * converted, the graph already loaded is kept.
+	 *
+	 * @return The graph; or <tt>null</tt> if there is no usable web data.
+	 */
+	public static synchronized WebGraph load() {
+		final File text = new File(GlobalConfiguration.Paths.getWebCache());
+		if (!text.exists() || !text.canRead()) {
+			return shared;
+		}
+		final long modified = text.lastModified(), length = text.length();
+		if ((shared != null && modified == sharedModified && length == sharedLength)
+				|| (modified == failedModified && length == failedLength)) {
+			return shared;
+		}
+		final File binary = new File(GlobalConfiguration.Paths.getWebGraphCache(modified, length));
+		try {
+			WebGraph graph = null;
+			if (binary.exists()) {
+				try {
+					graph = map(binary);
+				} catch (IOException e) {
+					// not mapped, so it can be replaced
+					binary.delete();
+				}
+			}
+			if (graph == null) {
+				convert(text, binary);
+				graph = map(binary);
+			}
+			shared = graph;
+			sharedModified = modified;
+			sharedLength = length;
+			removeStale(binary);
+			return shared;
+		} catch (IOException e) {
+			failedModified = modified;
+			failedLength = length;
+			log.warning("Unable to load web graph: " + e.getMessage()
+					+ (shared != null ? "; keeping the previous graph" : ""));
+			return shared;
+		}
+	}
+
+	/**
+	 * Deletes graphs converted from earlier web data. Graphs that are still
+	 * mapped may not be deletable on some platforms; they are tried again on
+	 * the next conversion.
+	 */
+	private static void removeStale(final File current) {
+		final File[] files = current.getAbsoluteFile().getParentFile().listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File f : files) {
+			final String name = f.getName();
+			if (name.startsWith("web-") && name.endsWith(".bin") && !name.equals(current.getName())) {
+				f.delete();
+			}
+		}
+	}
+
+	/**
+	 * Memory maps a binary web graph.
+	 *
+	 * @param file The binary graph file.
+	 * @return The graph.
+	 * @throws IOException If the file cannot be mapped or is not a graph.
+	 */
+	public static WebGraph map(File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			return new WebGraph(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Converts text web data into a binary graph. Each line of the text
+	 * holds <tt>x=y=n,n,...</tt> (or the same with two extra fields before
+	 * the neighbours), where <tt>n</tt> are line indices of neighbours.
+	 *
+	 * @param text   The text web data.
+	 * @param binary The binary graph file to write. If it already exists
+	 *               and cannot be replaced, it is assumed to hold the same
+	 *               graph.
+	 * @throws IOException If the text cannot be read or parsed, or the
+	 *                     graph cannot be written.
+	 */
+	public static void convert(File text, File binary) throws IOException {
+		final List<int[]> nodes = new ArrayList<int[]>();
+		int edgeCount = 0;
+		final BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(text)));
+		try {
+			String line;
+			while ((line = br.readLine()) != null) {
+				final String[] parts = line.split("=");
+				if (parts.length != 3 && parts.length != 5) {
+					continue;
+				}
+				try {
+					final int x = X_OFFSET + Integer.parseInt(parts[0]);
+					final int y = Y_OFFSET - Integer.parseInt(parts[1]);
+					if (x < 0 || y < 0 || x > 0xffff || y > 0xffff) {
+						throw new IOException("Web node out of range: " + line);
+					}
+					final String[] spl = parts[parts.length - 1].split(",");
+					final int[] node = new int[spl.length + 1];
+					node[0] = x << 16 | y;
+					int n = 1;
+					// neighbours are stored last to first
+					for (int i = spl.length - 1; i >= 0; --i) {
+						if (spl[i].length() > 0) {
+							node[n++] = Integer.parseInt(spl[i]);
+						}
+					}
+					final int[] trimmed = new int[n];
+					System.arraycopy(node, 0, trimmed, 0, n);
+					nodes.add(trimmed);
+					edgeCount += n - 1;
+				} catch (NumberFormatException e) {
+					throw new IOException("Bad web data: " + line);
+				}
+			}
+		} finally {
+			br.close();
+		}
+		for (int[] node : nodes) {
+			for (int i = 1; i < node.length; ++i) {
+				if (node[i] < 0 || node[i] >= nodes.size()) {
+					throw new IOException("Web edge out of range: " + node[i]);
+				}
+			}
+		}
+
+		final File tmp = File.createTempFile(binary.getName(), ".tmp", binary.getAbsoluteFile().getParentFile());
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		boolean written = false;
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(1);
+			out.writeInt(nodes.size());
+			out.writeInt(edgeCount);
+			for (int[] node : nodes) {
+				out.writeInt(node[0]);
+			}
+			int offset = 0;
+			for (int[] node : nodes) {
+				out.writeInt(offset);
+				offset += node.length - 1;
+			}
+			out.writeInt(offset);
+			for (int[] node : nodes) {
+				for (int i = 1; i < node.length; ++i) {
+					out.writeInt(node[i]);
+				}
+			}
+			written = true;
+		} finally {
+			out.close();
+			if (!written) {
+				tmp.delete();
+			}
+		}
+		if (!tmp.renameTo(binary)) {
+			tmp.delete();
+			if (!binary.exists()) {
+				throw new IOException("Unable to write " + binary.getName());
+			}
+		}
+	}
+
+	/**
+	 * Converts text web data to a binary graph from the command line.
+	 *
+	 * @param args The text file and the binary file.
+	 * @throws IOException If the conversion fails.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: WebGraph <webwalker.dat> <web.bin>");
+			System.exit(1);
+		}
+		convert(new File(args[0]), new File(args[1]));
+	}
+
+	/**
+	 * Gets the number of nodes.
+	 *
+	 * @return The node count.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getX(int node) {
+		return coords.get(node) >>> 16;
+	}
+
+	public int getY(int node) {
+		return coords.get(node) & 0xffff;
+	}
+
+	/**
+	 * Gets the index of the first edge leaving a node.
+	 *
+	 * @param node The node index.
+	 * @return The first edge index.
+	 */
+	public int getEdgeStart(int node) {
+		return offsets.get(node);
+	}
+
+	/**
+	 * Gets the index one past the last edge leaving a node.
+	 *
+	 * @param node The node index.
+	 * @return The end edge index.
+	 */
+	public int getEdgeEnd(int node) {
+		return offsets.get(node + 1);
+	}
+
+	/**
+	 * Gets the node an edge leads to.
+	 *
+	 * @param edge The edge index.
+	 * @return The neighbouring node index.
+	 */
+	public int getEdge(int edge) {
+		return edges.get(edge);
+	}
+
+	private static IntBuffer slice(IntBuffer ints, int offset, int length) {
+		final IntBuffer dup = ints.duplicate();
+		dup.position(offset);
+		dup.limit(offset + length);
+		return dup.slice();
+	}
+
+}
@@ -13,8 +13,74 @@ public class WebMap {
 	 */
 	private final WebTile[] tiles;
 
+	/**
+	 * The graph the tiles were built from; or null.
+	 */
+	private final WebGraph graph;
+
+	/**
+	 * The spatial index of the tiles.
+	 */
+	private final WebTileIndex index;
+
+	/**
+	 * The indices of tiles with a requirement.
+	 */
+	private int[] requirements;
+
+	/**
+	 * Routes previously found on this map.
+	 */
+	private final WebRouteCache routes = new WebRouteCache(WebRouteCache.DEFAULT_CAPACITY);
+
+	private static WebMap shared;
+
 	public WebMap(final WebTile[] tiles) {
 		this.tiles = tiles;
+		this.graph = null;
+		index = new WebTileIndex(tiles);
+		findRequirements();
+	}
+
+	public WebMap(final WebGraph graph) {
+		this.graph = graph;
+		tiles = new WebTile[graph.size()];
+		for (int i = 0; i < tiles.length; i++) {
+			final int start = graph.getEdgeStart(i);
+			final int[] neighbors = new int[graph.getEdgeEnd(i) - start];
+			for (int j = 0; j < neighbors.length; j++) {
+				neighbors[j] = graph.getEdge(start + j);
+			}
+			tiles[i] = new WebTile(new RSTile(graph.getX(i), graph.getY(i)), neighbors, null);
+		}
+		index = new WebTileIndex(tiles);
+		findRequirements();
+	}
+
+	/**
+	 * Gets the map of the downloaded web data, shared by every bot in the
+	 * process.
+	 *
+	 * @return The web map; or null if the web data could not be loaded.
+	 */
+	public static synchronized WebMap load() {
+		final WebGraph graph = WebGraph.load();
+		if (graph == null) {
+			return null;
+		}
+		if (shared == null || shared.graph != graph) {
+			shared = new WebMap(graph);
+		}
+		return shared;
+	}
+
+	/**
+	 * Returns the graph this map was built from.
+	 *
+	 * @return The web graph; or null if built from tiles.
+	 */
+	public WebGraph getGraph() {
+		return graph;
 	}
 
 	/**
@@ -47,22 +113,111 @@ public class WebMap {
 	 * @return The resulting web tile.
 	 */
 	public WebTile getWebTile(final RSTile tile) {
-		double maxDist = 999999.0;
-		WebTile webTile = null;
-		for (WebTile ctrl : tiles) {
-			if (maxDist == 0.0) {
-				break;
+		int index = getWebTileIndex(tile);
+		return index == -1 ? null : tiles[index];
+	}
+
+	/**
+	 * The index of the nearest web tile.
+	 *
+	 * @param tile The tile to search from.
+	 * @return The index of the nearest web tile; or -1 if the map is empty.
+	 */
+	public int getWebTileIndex(final RSTile tile) {
+		return index.nearest(tile.getX(), tile.getY());
+	}
+
+	/**
+	 * The web tiles nearest to a tile.
+	 *
+	 * @param tile  The tile to search from.
+	 * @param count The maximum number of web tiles to return.
+	 * @return Up to <tt>count</tt> web tiles, nearest first.
+	 */
+	public WebTile[] getNearest(final RSTile tile, final int count) {
+		return toTiles(getNearestIndices(tile, count));
+	}
+
+	/**
+	 * The indices of the web tiles nearest to a tile.
+	 *
+	 * @param tile  The tile to search from.
+	 * @param count The maximum number of indices to return.
+	 * @return Up to <tt>count</tt> web tile indices, nearest first.
+	 */
+	public int[] getNearestIndices(final RSTile tile, final int count) {
+		return index.nearest(tile.getX(), tile.getY(), count);
+	}
+
+	/**
+	 * The web tiles within a distance of a tile.
+	 *
+	 * @param tile   The tile to search from.
+	 * @param radius The maximum distance.
+	 * @return The web tiles, in no particular order.
+	 */
+	public WebTile[] getWithin(final RSTile tile, final double radius) {
+		return toTiles(getIndicesWithin(tile, radius));
+	}
+
+	/**
+	 * The indices of the web tiles within a distance of a tile.
+	 *
+	 * @param tile   The tile to search from.
+	 * @param radius The maximum distance.
+	 * @return The web tile indices, in no particular order.
+	 */
+	public int[] getIndicesWithin(final RSTile tile, final double radius) {
+		return index.within(tile.getX(), tile.getY(), radius);
+	}
+
+	/**
+	 * Evaluates the requirement of every tile that has one.
+	 *
+	 * @return A bit set of the requirements that are currently met, in tile
+	 *         order.
+	 */
+	public long[] getRequirementState() {
+		final long[] state = new long[(requirements.length + 63) >> 6];
+		for (int i = 0; i < requirements.length; i++) {
+			if (tiles[requirements[i]].req.canDo()) {
+				state[i >> 6] |= 1L << i;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the cache of routes found on this map.
+	 *
+	 * @return The route cache.
+	 */
+	public WebRouteCache getRouteCache() {
+		return routes;
+	}
+
+	private void findRequirements() {
+		int count = 0;
+		for (WebTile tile : tiles) {
+			if (tile.req != null) {
+				count++;
 			}
-			double sqrt = Math.sqrt((ctrl.getX() - tile.getX())
-					* (ctrl.getX() - tile.getX())
-					+ (ctrl.getY() - tile.getY())
-					* (ctrl.getY() - tile.getY()));
-			if (sqrt < maxDist) {
-				webTile = ctrl;
-				maxDist = sqrt;
+		}
+		requirements = new int[count];
+		count = 0;
+		for (int i = 0; i < tiles.length; i++) {
+			if (tiles[i].req != null) {
+				requirements[count++] = i;
 			}
 		}
-		return webTile;
+	}
+
+	private WebTile[] toTiles(final int[] indices) {
+		WebTile[] result = new WebTile[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			result[i] = tiles[indices[i]];
+		}
+		return result;
 	}
 
 	/**
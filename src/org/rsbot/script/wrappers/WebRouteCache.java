@@ -0,0 +1,128 @@
+package org.rsbot.script.wrappers;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of routes found on a web map. Routes are keyed
+ * by the start and end web tiles and by which tile requirements were met
+ * when the route was found, so a route is never reused once the
+ * requirements it depended on have changed.
+ */
+public class WebRouteCache {
+
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private static final WebTile[] NO_ROUTE = new WebTile[0];
+
+	private final Map<Key, WebTile[]> routes;
+	private long hits, misses, evictions;
+
+	public WebRouteCache(final int capacity) {
+		routes = new LinkedHashMap<Key, WebTile[]>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, WebTile[]> eldest) {
+				if (size() > capacity) {
+					++evictions;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Looks up a route.
+	 *
+	 * @param start        The index of the start web tile.
+	 * @param end          The index of the end web tile.
+	 * @param requirements Which tile requirements are met.
+	 * @return A copy of the cached route, an empty array if no route exists,
+	 *         or <tt>null</tt> if the route is not cached.
+	 */
+	public synchronized WebTile[] get(final int start, final int end, final long[] requirements) {
+		final WebTile[] route = routes.get(new Key(start, end, requirements));
+		if (route == null) {
+			++misses;
+			return null;
+		}
+		++hits;
+		return route.length == 0 ? route : route.clone();
+	}
+
+	/**
+	 * Stores a route.
+	 *
+	 * @param start        The index of the start web tile.
+	 * @param end          The index of the end web tile.
+	 * @param requirements Which tile requirements were met.
+	 * @param route        The route; or <tt>null</tt> if none exists.
+	 */
+	public synchronized void put(final int start, final int end, final long[] requirements, final WebTile[] route) {
+		routes.put(new Key(start, end, requirements), route == null ? NO_ROUTE : route.clone());
+	}
+
+	/**
+	 * Removes every cached route.
+	 */
+	public synchronized void clear() {
+		routes.clear();
+	}
+
+	public synchronized int size() {
+		return routes.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * Gets the fraction of lookups that found a cached route.
+	 *
+	 * @return The hit rate between 0 and 1.
+	 */
+	public synchronized double getHitRate() {
+		final long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	private static class Key {
+
+		private final int start, end;
+		private final long[] requirements;
+		private final int hash;
+
+		Key(final int start, final int end, final long[] requirements) {
+			this.start = start;
+			this.end = end;
+			this.requirements = requirements;
+			hash = (start * 31 + end) * 31 + Arrays.hashCode(requirements);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o instanceof Key) {
+				final Key k = (Key) o;
+				return start == k.start && end == k.end && Arrays.equals(requirements, k.requirements);
+			}
+			return false;
+		}
+
+	}
+
+}
@@ -8,9 +8,19 @@ package org.rsbot.script.wrappers;
  */
 public class WebTile extends RSTile {
 
-	private int[] neighbors = null;
+	private final int[] neighbors;
+	/**
+	 * @deprecated Search state is no longer kept in tiles, which are shared
+	 *             between bots.
+	 */
+	@Deprecated
 	public WebTile parent = null;
-	public Task req = null;
+	public final Task req;
+	/**
+	 * @deprecated Search state is no longer kept in tiles, which are shared
+	 *             between bots.
+	 */
+	@Deprecated
 	public double g = 0.00, f = 0.00;
 
 	public WebTile(final RSTile tile, final int[] neighbors,
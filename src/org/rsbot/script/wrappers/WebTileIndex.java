@@ -0,0 +1,175 @@
+package org.rsbot.script.wrappers;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the tiles of a web map. Each cell lists the indices
+ * of the tiles inside it, so that nearest tile and radius queries only
+ * look at the cells around the query tile.
+ */
+class WebTileIndex {
+
+	private static final int CELL = 32;
+
+	private final WebTile[] tiles;
+	private final int minX, minY;
+	private final int cols, rows;
+	private final int[] cellStart;
+	private final int[] cellTiles;
+
+	WebTileIndex(final WebTile[] tiles) {
+		this.tiles = tiles;
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		for (WebTile tile : tiles) {
+			minX = Math.min(minX, tile.getX());
+			minY = Math.min(minY, tile.getY());
+			maxX = Math.max(maxX, tile.getX());
+			maxY = Math.max(maxY, tile.getY());
+		}
+		if (tiles.length == 0) {
+			minX = minY = 0;
+			maxX = maxY = -1;
+		}
+		this.minX = minX;
+		this.minY = minY;
+		cols = (maxX - minX) / CELL + 1;
+		rows = (maxY - minY) / CELL + 1;
+
+		// counting sort of tile indices by cell
+		cellStart = new int[cols * rows + 1];
+		for (WebTile tile : tiles) {
+			++cellStart[cell(tile.getX(), tile.getY()) + 1];
+		}
+		for (int i = 0; i < cols * rows; ++i) {
+			cellStart[i + 1] += cellStart[i];
+		}
+		cellTiles = new int[tiles.length];
+		final int[] fill = Arrays.copyOf(cellStart, cols * rows);
+		for (int i = 0; i < tiles.length; ++i) {
+			cellTiles[fill[cell(tiles[i].getX(), tiles[i].getY())]++] = i;
+		}
+	}
+
+	/**
+	 * Finds the tile nearest to a point. Ties go to the lowest index.
+	 *
+	 * @return The tile index; or -1 if there are no tiles.
+	 */
+	int nearest(final int x, final int y) {
+		if (tiles.length == 0) {
+			return -1;
+		}
+		final int cx = clamp((x - minX) / CELL, cols), cy = clamp((y - minY) / CELL, rows);
+		final int maxRing = Math.max(Math.max(cx, cols - 1 - cx), Math.max(cy, rows - 1 - cy));
+		int best = -1;
+		long bestDist = Long.MAX_VALUE;
+		for (int ring = 0; ring <= maxRing; ++ring) {
+			// every tile in this ring or beyond is at least this far away
+			final long bound = (long) Math.max(0, ring - 1) * CELL;
+			if (best != -1 && bound * bound > bestDist) {
+				break;
+			}
+			for (int i = cx - ring; i <= cx + ring; ++i) {
+				if (i < 0 || i >= cols) {
+					continue;
+				}
+				final boolean edge = i == cx - ring || i == cx + ring;
+				for (int j = cy - ring; j <= cy + ring; j += edge ? 1 : 2 * ring) {
+					if (j < 0 || j >= rows) {
+						continue;
+					}
+					final int cell = i * rows + j;
+					for (int k = cellStart[cell]; k < cellStart[cell + 1]; ++k) {
+						final int t = cellTiles[k];
+						final long d = dist(t, x, y);
+						if (d < bestDist || (d == bestDist && t < best)) {
+							best = t;
+							bestDist = d;
+						}
+					}
+					if (ring == 0) {
+						break;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds the tiles no further than a radius from a point, in no
+	 * particular order.
+	 *
+	 * @return The tile indices.
+	 */
+	int[] within(final int x, final int y, final double radius) {
+		if (tiles.length == 0 || radius < 0) {
+			return new int[0];
+		}
+		final int r = (int) Math.ceil(radius);
+		final double limit = radius * radius;
+		final int fromX = clamp((x - r - minX) / CELL, cols), toX = clamp((x + r - minX) / CELL, cols);
+		final int fromY = clamp((y - r - minY) / CELL, rows), toY = clamp((y + r - minY) / CELL, rows);
+		int[] found = new int[16];
+		int count = 0;
+		for (int i = fromX; i <= toX; ++i) {
+			for (int j = fromY; j <= toY; ++j) {
+				final int cell = i * rows + j;
+				for (int k = cellStart[cell]; k < cellStart[cell + 1]; ++k) {
+					final int t = cellTiles[k];
+					if (dist(t, x, y) <= limit) {
+						if (count == found.length) {
+							found = Arrays.copyOf(found, count * 2);
+						}
+						found[count++] = t;
+					}
+				}
+			}
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * Finds up to <tt>k</tt> tiles nearest to a point, nearest first.
+	 *
+	 * @return The tile indices.
+	 */
+	int[] nearest(final int x, final int y, final int k) {
+		if (k <= 0 || tiles.length == 0) {
+			return new int[0];
+		}
+		final int outsideX = Math.max(0, Math.max(minX - x, x - (minX + cols * CELL)));
+		final int outsideY = Math.max(0, Math.max(minY - y, y - (minY + rows * CELL)));
+		int[] found;
+		double radius = CELL + Math.max(outsideX, outsideY);
+		while ((found = within(x, y, radius)).length < k && found.length < tiles.length) {
+			radius *= 2;
+		}
+		// sort by distance, then index
+		final long[] keys = new long[found.length];
+		for (int i = 0; i < found.length; ++i) {
+			keys[i] = Math.min(dist(found[i], x, y), Integer.MAX_VALUE) << 32 | found[i];
+		}
+		Arrays.sort(keys);
+		final int[] result = new int[Math.min(k, keys.length)];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = (int) keys[i];
+		}
+		return result;
+	}
+
+	private int cell(final int x, final int y) {
+		return (x - minX) / CELL * rows + (y - minY) / CELL;
+	}
+
+	private long dist(final int tile, final int x, final int y) {
+		final long dx = tiles[tile].getX() - x, dy = tiles[tile].getY() - y;
+		return dx * dx + dy * dy;
+	}
+
+	private static int clamp(final int value, final int size) {
+		return value < 0 ? 0 : value >= size ? size - 1 : value;
+	}
+
+}
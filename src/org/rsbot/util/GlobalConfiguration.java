@@ -171,6 +171,10 @@ public class GlobalConfiguration {
 			return Paths.getCacheDirectory() + File.separator + "ms.dat";
 		}
 
+		public static String getInjectedCache() {
+			return Paths.getCacheDirectory() + File.separator + "injected.dat";
+		}
+
 		public static String getClientCache() {
 			return Paths.getCacheDirectory() + File.separator + "client.dat";
 		}
@@ -179,6 +183,10 @@ public class GlobalConfiguration {
 			return Paths.getCacheDirectory() + File.separator + "web.dat";
 		}
 
+		public static String getWebGraphCache(final long modified, final long length) {
+			return Paths.getCacheDirectory() + File.separator + "web-" + modified + "-" + length + ".bin";
+		}
+
 		public static String getHackCache() {
 			return Paths.getCacheDirectory() + File.separator + "hack.dat";
 		}